@@ -1,26 +1,102 @@
 package io.xpipe.app.beacon;
 
+import io.xpipe.app.issue.TrackEvent;
+import io.xpipe.app.util.GlobalTimer;
 import io.xpipe.beacon.BeaconClientException;
+import io.xpipe.beacon.BeaconConfig;
 
 import lombok.Value;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Value
 public class AppBeaconCache {
 
-    Set<BeaconShellSession> shellSessions = new HashSet<>();
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    Map<UUID, BeaconShellSession> shellSessions = new ConcurrentHashMap<>();
+    AtomicLong evictedSessions = new AtomicLong();
 
     public BeaconShellSession getShellSession(UUID uuid) throws BeaconClientException {
-        var found = shellSessions.stream()
-                .filter(beaconShellSession ->
-                        beaconShellSession.getEntry().getUuid().equals(uuid))
-                .findFirst();
-        if (found.isEmpty()) {
+        var found = shellSessions.get(uuid);
+        if (found == null) {
             throw new BeaconClientException("No active shell session known for id " + uuid);
         }
-        return found.get();
+        return found;
+    }
+
+    public Collection<BeaconShellSession> getOpenShellSessions() {
+        return shellSessions.values();
+    }
+
+    public void addShellSession(BeaconShellSession session) {
+        var previous = shellSessions.put(session.getEntry().getUuid(), session);
+        if (previous != null && previous != session) {
+            previous.close();
+        }
+    }
+
+    public void removeShellSession(BeaconShellSession session) {
+        if (shellSessions.remove(session.getEntry().getUuid(), session)) {
+            session.close();
+        }
+    }
+
+    public int getOpenShellControlCount() {
+        return shellSessions.values().stream()
+                .mapToInt(BeaconShellSession::getOpenControlCount)
+                .sum();
+    }
+
+    public int getActiveShellControlCount() {
+        return shellSessions.values().stream()
+                .mapToInt(BeaconShellSession::getActiveControlCount)
+                .sum();
+    }
+
+    public void startEviction() {
+        var timeout = BeaconConfig.getShellSessionIdleTimeout();
+        if (timeout.isZero() || timeout.isNegative()) {
+            return;
+        }
+
+        GlobalTimer.scheduleUntil(EVICTION_INTERVAL, () -> {
+            if (AppBeaconServer.get() == null || AppBeaconServer.get().getCache() != this) {
+                return true;
+            }
+
+            evictIdle(timeout);
+            return false;
+        });
+    }
+
+    private void evictIdle(Duration timeout) {
+        var expiry = Instant.now().minus(timeout);
+        shellSessions.values().forEach(session -> {
+            if (!session.closeIfIdle(expiry)) {
+                return;
+            }
+
+            if (shellSessions.remove(session.getEntry().getUuid(), session)) {
+                evictedSessions.incrementAndGet();
+                TrackEvent.withDebug("Closed idle API shell session")
+                        .tag("connection", session.getEntry().getName())
+                        .tag("openSessions", shellSessions.size())
+                        .tag("openShells", getOpenShellControlCount())
+                        .tag("evictedSessions", evictedSessions.get())
+                        .handle();
+            }
+        });
+    }
+
+    public void closeAll() {
+        shellSessions.values().forEach(BeaconShellSession::close);
+        shellSessions.clear();
     }
 }
@@ -46,6 +46,8 @@ public class AppBeaconServer {
     @Getter
     private String localAuthSecret;
 
+    private final Map<String, BeaconRequestHandler<?>> handlers = new HashMap<>();
+
     public static void setupPort() {
         int port;
         boolean propertyPort;
@@ -68,6 +70,7 @@ public class AppBeaconServer {
         try {
             INSTANCE.initAuthSecret();
             INSTANCE.start();
+            INSTANCE.cache.startEviction();
             TrackEvent.withInfo("Started http server")
                     .tag("port", INSTANCE.getPort())
                     .build()
@@ -97,6 +100,10 @@ public class AppBeaconServer {
         return INSTANCE;
     }
 
+    public Optional<BeaconRequestHandler<?>> getHandler(String path) {
+        return Optional.ofNullable(handlers.get(path));
+    }
+
     private void stop() {
         if (!running) {
             return;
@@ -104,6 +111,7 @@ public class AppBeaconServer {
 
         running = false;
         server.stop(0);
+        cache.closeAll();
         executor.shutdown();
         try {
             executor.awaitTermination(30, TimeUnit.SECONDS);
@@ -130,19 +138,32 @@ public class AppBeaconServer {
     }
 
     private void start() throws IOException {
-        executor = Executors.newFixedThreadPool(5, r -> {
-            Thread t = Executors.defaultThreadFactory().newThread(r);
-            t.setDaemon(true);
-            t.setName("http handler");
-            t.setUncaughtExceptionHandler((t1, e) -> {
-                ErrorEvent.fromThrowable(e).handle();
+        if (BeaconConfig.useVirtualThreadDispatch()) {
+            // Many exchanges block for a long time, so don't let them take away a limited amount of threads
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                    .name("http handler-", 0)
+                    .uncaughtExceptionHandler((t1, e) -> {
+                        ErrorEvent.fromThrowable(e).handle();
+                    })
+                    .factory());
+        } else {
+            executor = Executors.newFixedThreadPool(5, r -> {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setDaemon(true);
+                t.setName("http handler");
+                t.setUncaughtExceptionHandler((t1, e) -> {
+                    ErrorEvent.fromThrowable(e).handle();
+                });
+                return t;
             });
-            return t;
-        });
+        }
         server = HttpServer.create(
-                new InetSocketAddress(Inet4Address.getByAddress(new byte[] {0x7f, 0x00, 0x00, 0x01}), port), 10);
+                new InetSocketAddress(Inet4Address.getByAddress(new byte[] {0x7f, 0x00, 0x00, 0x01}), port),
+                BeaconConfig.getServerBacklog());
         BeaconInterface.getAll().forEach(beaconInterface -> {
-            server.createContext(beaconInterface.getPath(), new BeaconRequestHandler<>(beaconInterface));
+            var handler = new BeaconRequestHandler<>(beaconInterface);
+            handlers.put(beaconInterface.getPath(), handler);
+            server.createContext(beaconInterface.getPath(), handler);
         });
         server.setExecutor(executor);
 
@@ -6,8 +6,11 @@ import io.xpipe.app.issue.TrackEvent;
 import io.xpipe.app.prefs.AppPrefs;
 import io.xpipe.app.util.ThreadHelper;
 import io.xpipe.beacon.*;
+import io.xpipe.beacon.api.BatchExchange;
 import io.xpipe.core.util.JacksonMapper;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import lombok.SneakyThrows;
@@ -17,13 +20,120 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class BeaconRequestHandler<T> implements HttpHandler {
 
+    private static final Map<Object, ReadWriteLock> SYNCHRONIZATION_LOCKS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     private final BeaconInterface<T> beaconInterface;
+    private final Semaphore concurrencyLimit;
+    private final boolean emptyRequestClass;
+    private final boolean emptyResponseClass;
+    private final boolean rawDataRequestClass;
 
     public BeaconRequestHandler(BeaconInterface<T> beaconInterface) {
         this.beaconInterface = beaconInterface;
+        var max = beaconInterface.getMaxConcurrentRequests();
+        this.concurrencyLimit = max > 0 ? new Semaphore(max, true) : null;
+        // The classes don't change, so there's no need to reflect on them for every request
+        var requestFields = beaconInterface.getRequestClass().getDeclaredFields();
+        this.emptyRequestClass = requestFields.length == 0;
+        this.emptyResponseClass = beaconInterface.getResponseClass().getDeclaredFields().length == 0;
+        this.rawDataRequestClass = requestFields.length == 1 && requestFields[0].getType().equals(byte[].class);
+    }
+
+    public BeaconInterface<T> getBeaconInterface() {
+        return beaconInterface;
+    }
+
+    public BatchExchange.Result handleBatched(int index, JsonNode body) {
+        if (OperationMode.isInShutdown() && !beaconInterface.acceptInShutdown()) {
+            return createBatchError(index, 400, new BeaconClientErrorResponse("Daemon is currently in shutdown"));
+        }
+
+        if (beaconInterface.requiresCompletedStartup()) {
+            while (OperationMode.isInStartup()) {
+                ThreadHelper.sleep(100);
+            }
+        }
+
+        if (beaconInterface.requiresEnabledApi()
+                && !AppPrefs.get().enableHttpApi().get()) {
+            var ex = new BeaconServerException("HTTP API is not enabled in the settings menu");
+            return createBatchError(index, 403, ex);
+        }
+
+        try {
+            T object = body == null || body.isNull() || (body.isEmpty() && emptyRequestClass)
+                    ? createDefaultRequest(beaconInterface)
+                    : JacksonMapper.getDefault().treeToValue(body, beaconInterface.getRequestClass());
+            var response = handleWithLimits(null, object);
+            return BatchExchange.Result.builder()
+                    .index(index)
+                    .status(200)
+                    .response(
+                            !emptyResponseClass && response != null
+                                    ? JacksonMapper.getDefault().valueToTree(response)
+                                    : null)
+                    .build();
+        } catch (BeaconClientException clientException) {
+            ErrorEvent.fromThrowable(clientException).omit().expected().handle();
+            return createBatchError(index, 400, new BeaconClientErrorResponse(clientException.getMessage()));
+        } catch (JsonProcessingException ex) {
+            ErrorEvent.fromThrowable(ex).omit().expected().handle();
+            return createBatchError(index, 400, new BeaconClientErrorResponse(ex.getOriginalMessage()));
+        } catch (BeaconServerException serverException) {
+            var cause = serverException.getCause() != null ? serverException.getCause() : serverException;
+            var event = ErrorEvent.fromThrowable(cause).omit().handle();
+            return createBatchError(index, 500, new BeaconServerErrorResponse(cause, event.getLink()));
+        } catch (Throwable other) {
+            var event = ErrorEvent.fromThrowable(other).omit().expected().handle();
+            return createBatchError(index, 500, new BeaconServerErrorResponse(other, event.getLink()));
+        }
+    }
+
+    private static BatchExchange.Result createBatchError(int index, int status, Object error) {
+        return BatchExchange.Result.builder()
+                .index(index)
+                .status(status)
+                .error(JacksonMapper.getDefault().valueToTree(error))
+                .build();
+    }
+
+    private Object handleWithLimits(HttpExchange exchange, T object) throws Throwable {
+        if (concurrencyLimit != null) {
+            concurrencyLimit.acquire();
+        }
+
+        try {
+            var sync = beaconInterface.getSynchronizationObject(object);
+            if (sync == null) {
+                return beaconInterface.handle(exchange, object);
+            }
+
+            // Use locks instead of synchronized blocks to not pin virtual threads
+            var readWriteLock = SYNCHRONIZATION_LOCKS.computeIfAbsent(sync, o -> new ReentrantReadWriteLock(true));
+            var lock = beaconInterface.requiresExclusiveSynchronization()
+                    ? readWriteLock.writeLock()
+                    : readWriteLock.readLock();
+            lock.lock();
+            try {
+                return beaconInterface.handle(exchange, object);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (concurrencyLimit != null) {
+                concurrencyLimit.release();
+            }
+        }
     }
 
     @Override
@@ -76,20 +186,12 @@ public class BeaconRequestHandler<T> implements HttpHandler {
             } else {
                 try (InputStream is = exchange.getRequestBody()) {
                     var read = is.readAllBytes();
-                    var rawDataRequestClass = beaconInterface.getRequestClass().getDeclaredFields().length == 1
-                            && beaconInterface
-                                    .getRequestClass()
-                                    .getDeclaredFields()[0]
-                                    .getType()
-                                    .equals(byte[].class);
                     if (!new String(read, StandardCharsets.US_ASCII).strip().startsWith("{") && rawDataRequestClass) {
                         object = createRawDataRequest(beaconInterface, read);
                     } else {
                         var tree = JacksonMapper.getDefault().readTree(read);
                         TrackEvent.trace("Parsed raw request:\n" + tree.toPrettyString());
-                        var emptyRequestClass = tree.isEmpty()
-                                && beaconInterface.getRequestClass().getDeclaredFields().length == 0;
-                        object = emptyRequestClass
+                        object = tree.isEmpty() && emptyRequestClass
                                 ? createDefaultRequest(beaconInterface)
                                 : JacksonMapper.getDefault().treeToValue(tree, beaconInterface.getRequestClass());
                         TrackEvent.trace("Parsed request object:\n" + object);
@@ -97,14 +199,7 @@ public class BeaconRequestHandler<T> implements HttpHandler {
                 }
             }
 
-            var sync = beaconInterface.getSynchronizationObject();
-            if (sync != null) {
-                synchronized (sync) {
-                    response = beaconInterface.handle(exchange, object);
-                }
-            } else {
-                response = beaconInterface.handle(exchange, object);
-            }
+            response = handleWithLimits(exchange, object);
         } catch (BeaconClientException clientException) {
             ErrorEvent.fromThrowable(clientException).omit().expected().handle();
             writeError(exchange, new BeaconClientErrorResponse(clientException.getMessage()), 400);
@@ -140,7 +235,6 @@ public class BeaconRequestHandler<T> implements HttpHandler {
         }
 
         try {
-            var emptyResponseClass = beaconInterface.getResponseClass().getDeclaredFields().length == 0;
             if (!emptyResponseClass && response != null) {
                 TrackEvent.trace("Sending response:\n" + response);
                 TrackEvent.trace("Sending raw response:\n"
@@ -1,13 +1,210 @@
 package io.xpipe.app.beacon;
 
+import io.xpipe.app.ext.ShellStore;
 import io.xpipe.app.storage.DataStoreEntry;
+import io.xpipe.beacon.BeaconClientException;
 import io.xpipe.core.process.ShellControl;
 
-import lombok.Value;
+import lombok.AccessLevel;
+import lombok.Getter;
 
-@Value
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A shell session started via the API. Apart from the primary shell control, additional controls to the same system
+ * can be opened on demand up to the pool size, so that multiple commands can be run at the same time.
+ */
+@Getter
 public class BeaconShellSession {
 
-    DataStoreEntry entry;
-    ShellControl control;
+    private final DataStoreEntry entry;
+    private final ShellControl control;
+    private final int poolSize;
+
+    @Getter(AccessLevel.NONE)
+    private final List<ShellControl> pooled = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Deque<ShellControl> idle = new ArrayDeque<>();
+
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Getter(AccessLevel.NONE)
+    private final Condition available = lock.newCondition();
+
+    private int creating;
+    private int active;
+    private boolean closed;
+    private volatile Instant lastUsed = Instant.now();
+
+    public BeaconShellSession(DataStoreEntry entry, ShellControl control, int poolSize) {
+        this.entry = entry;
+        this.control = control;
+        this.poolSize = Math.max(1, poolSize);
+        this.pooled.add(control);
+        this.idle.add(control);
+    }
+
+    public ShellControl getControl() {
+        lastUsed = Instant.now();
+        return control;
+    }
+
+    public Lease acquire() throws Exception {
+        lock.lock();
+        try {
+            lastUsed = Instant.now();
+            while (true) {
+                if (closed) {
+                    throw new BeaconClientException("Shell session for " + entry.getName() + " has been closed");
+                }
+
+                var next = idle.pollFirst();
+                if (next != null) {
+                    if (next != control && !next.isRunning(false)) {
+                        pooled.remove(next);
+                        closeQuietly(next);
+                        continue;
+                    }
+
+                    active++;
+                    return new Lease(next);
+                }
+
+                if (pooled.size() + creating < poolSize) {
+                    creating++;
+                    break;
+                }
+
+                available.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Start the new control without holding the lock as this can take a while
+        ShellControl created = null;
+        try {
+            created = ((ShellStore) entry.getStore()).standaloneControl();
+            created.setNonInteractive();
+            created.start();
+        } catch (Exception ex) {
+            if (created != null) {
+                closeQuietly(created);
+            }
+            lock.lock();
+            try {
+                creating--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw ex;
+        }
+
+        lock.lock();
+        try {
+            creating--;
+            // The session might have been closed while the control was starting
+            if (closed) {
+                closeQuietly(created);
+                throw new BeaconClientException("Shell session for " + entry.getName() + " has been closed");
+            }
+
+            pooled.add(created);
+            active++;
+            return new Lease(created);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getOpenControlCount() {
+        lock.lock();
+        try {
+            return pooled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveControlCount() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the session if it has no active or starting controls and has not been used since the expiry.
+     * The check and the close happen under the session lock, so a concurrent acquire either completes first or fails.
+     */
+    public boolean closeIfIdle(Instant expiry) {
+        lock.lock();
+        try {
+            if (closed || active > 0 || creating > 0 || !lastUsed.isBefore(expiry)) {
+                return false;
+            }
+
+            close();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pooled.forEach(BeaconShellSession::closeQuietly);
+            pooled.clear();
+            idle.clear();
+            // Wake up waiting acquires so that they fail instead of waiting forever
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(ShellControl sc) {
+        try {
+            sc.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    public class Lease implements AutoCloseable {
+
+        @Getter
+        private final ShellControl control;
+
+        private Lease(ShellControl control) {
+            this.control = control;
+        }
+
+        @Override
+        public void close() {
+            lastUsed = Instant.now();
+            lock.lock();
+            try {
+                active--;
+                if (pooled.contains(control)) {
+                    idle.addFirst(control);
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package io.xpipe.app.beacon;
 
 import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.util.GlobalTimer;
 import io.xpipe.app.util.ShellTemp;
 import io.xpipe.beacon.BeaconClientException;
 
@@ -11,6 +12,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,9 +22,12 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BlobManager {
 
     private static final Path TEMP = ShellTemp.getLocalTempDataDirectory("blob");
+    private static final Duration BLOB_TTL = Duration.ofMinutes(30);
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+    private static final long MAX_MEMORY_SIZE = 256L * 1024 * 1024;
+    private static final long MAX_FILE_SIZE = 16L * 1024 * 1024 * 1024;
     private static BlobManager INSTANCE;
-    private final Map<UUID, byte[]> memoryBlobs = new ConcurrentHashMap<>();
-    private final Map<UUID, Path> fileBlobs = new ConcurrentHashMap<>();
+    private final Map<UUID, Blob> blobs = new ConcurrentHashMap<>();
 
     public static BlobManager get() {
         return INSTANCE;
@@ -38,6 +45,16 @@ public class BlobManager {
         } catch (IOException e) {
             ErrorEvent.fromThrowable(e).handle();
         }
+
+        var instance = INSTANCE;
+        GlobalTimer.scheduleUntil(EVICTION_INTERVAL, () -> {
+            if (INSTANCE != instance) {
+                return true;
+            }
+
+            instance.evict();
+            return false;
+        });
     }
 
     public static void reset() {
@@ -48,35 +65,118 @@ public class BlobManager {
         INSTANCE = null;
     }
 
-    public Path newBlobFile() throws IOException {
-        var file = TEMP.resolve(UUID.randomUUID().toString());
-        FileUtils.forceMkdir(file.getParent().toFile());
-        return file;
-    }
+    public void store(UUID uuid, byte[] blob) throws IOException {
+        // Don't let in-memory blobs grow indefinitely, store them on disk instead
+        if (getMemorySize() + blob.length > MAX_MEMORY_SIZE) {
+            store(uuid, new ByteArrayInputStream(blob));
+            return;
+        }
 
-    public void store(UUID uuid, byte[] blob) {
-        memoryBlobs.put(uuid, blob);
+        blobs.put(uuid, new Blob(blob, null, blob.length));
+        evict();
     }
 
     public void store(UUID uuid, InputStream blob) throws IOException {
         var file = TEMP.resolve(uuid.toString());
+        FileUtils.forceMkdir(file.getParent().toFile());
         try (var fileOut = Files.newOutputStream(file)) {
             blob.transferTo(fileOut);
         }
-        fileBlobs.put(uuid, file);
+        blobs.put(uuid, new Blob(null, file, Files.size(file)));
+        evict();
     }
 
     public InputStream getBlob(UUID uuid) throws Exception {
-        var memory = memoryBlobs.get(uuid);
-        if (memory != null) {
-            return new ByteArrayInputStream(memory);
+        var blob = getBlobEntry(uuid);
+        if (blob.memory != null) {
+            return new ByteArrayInputStream(blob.memory);
+        }
+
+        return Files.newInputStream(blob.file);
+    }
+
+    public long getBlobSize(UUID uuid) throws Exception {
+        return getBlobEntry(uuid).size;
+    }
+
+    public void remove(UUID uuid) {
+        var blob = blobs.remove(uuid);
+        if (blob != null) {
+            blob.delete();
         }
+    }
 
-        var found = fileBlobs.get(uuid);
-        if (found == null) {
+    private Blob getBlobEntry(UUID uuid) throws BeaconClientException {
+        var blob = blobs.get(uuid);
+        if (blob == null) {
             throw new BeaconClientException("No saved data known for id " + uuid);
         }
 
-        return Files.newInputStream(found);
+        blob.lastAccess = Instant.now();
+        return blob;
+    }
+
+    private long getMemorySize() {
+        return blobs.values().stream()
+                .filter(blob -> blob.memory != null)
+                .mapToLong(blob -> blob.size)
+                .sum();
+    }
+
+    private long getFileSize() {
+        return blobs.values().stream()
+                .filter(blob -> blob.file != null)
+                .mapToLong(blob -> blob.size)
+                .sum();
+    }
+
+    private synchronized void evict() {
+        var expiry = Instant.now().minus(BLOB_TTL);
+        blobs.entrySet().removeIf(e -> {
+            if (e.getValue().lastAccess.isBefore(expiry)) {
+                e.getValue().delete();
+                return true;
+            }
+            return false;
+        });
+
+        // Remove the least recently used file blobs if they take up too much space
+        var fileSize = getFileSize();
+        if (fileSize <= MAX_FILE_SIZE) {
+            return;
+        }
+
+        var fileBlobs = blobs.entrySet().stream()
+                .filter(e -> e.getValue().file != null)
+                .sorted(Comparator.comparing(e -> e.getValue().lastAccess))
+                .toList();
+        for (var e : fileBlobs) {
+            if (fileSize <= MAX_FILE_SIZE) {
+                break;
+            }
+
+            remove(e.getKey());
+            fileSize -= e.getValue().size;
+        }
+    }
+
+    private static class Blob {
+
+        private final byte[] memory;
+        private final Path file;
+        private final long size;
+        private volatile Instant lastAccess = Instant.now();
+
+        private Blob(byte[] memory, Path file, long size) {
+            this.memory = memory;
+            this.file = file;
+            this.size = size;
+        }
+
+        private void delete() {
+            if (file != null) {
+                FileUtils.deleteQuietly(file.toFile());
+            }
+        }
     }
 }
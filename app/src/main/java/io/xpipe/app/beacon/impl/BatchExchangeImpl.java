@@ -0,0 +1,71 @@
+package io.xpipe.app.beacon.impl;
+
+import io.xpipe.app.beacon.AppBeaconServer;
+import io.xpipe.app.beacon.BeaconRequestHandler;
+import io.xpipe.beacon.BeaconClientException;
+import io.xpipe.beacon.api.BatchExchange;
+import io.xpipe.core.util.JacksonMapper;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class BatchExchangeImpl extends BatchExchange {
+
+    @Override
+    public Object handle(HttpExchange exchange, Request msg) throws Throwable {
+        // Check everything before starting to send anything
+        var handlers = new ArrayList<BeaconRequestHandler<?>>();
+        for (SubRequest request : msg.getRequests()) {
+            var handler = AppBeaconServer.get()
+                    .getHandler(request.getPath())
+                    .orElseThrow(() -> new BeaconClientException("Unknown exchange " + request.getPath()));
+            if (!handler.getBeaconInterface().allowInBatch()) {
+                throw new BeaconClientException("Exchange " + request.getPath() + " can not be used in a batch");
+            }
+            handlers.add(handler);
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (var out = exchange.getResponseBody()) {
+            var lock = new ReentrantLock();
+            if (msg.isSequential()) {
+                for (int i = 0; i < handlers.size(); i++) {
+                    var result = handlers.get(i).handleBatched(i, msg.getRequests().get(i).getBody());
+                    write(out, lock, result);
+                }
+            } else {
+                try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int i = 0; i < handlers.size(); i++) {
+                        var index = i;
+                        executor.submit(() -> {
+                            var result = handlers.get(index)
+                                    .handleBatched(index, msg.getRequests().get(index).getBody());
+                            write(out, lock, result);
+                            return null;
+                        });
+                    }
+                }
+            }
+        }
+        return Response.builder().build();
+    }
+
+    private static void write(OutputStream out, ReentrantLock lock, Result result) throws IOException {
+        var bytes = JacksonMapper.getDefault().writeValueAsBytes(result);
+        lock.lock();
+        try {
+            out.write(bytes);
+            out.write('\n');
+            // Send every result as soon as it is available
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
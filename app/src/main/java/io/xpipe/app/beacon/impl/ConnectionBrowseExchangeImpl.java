@@ -29,4 +29,9 @@ public class ConnectionBrowseExchangeImpl extends ConnectionBrowseExchange {
     public Object getSynchronizationObject() {
         return DataStorage.get();
     }
+
+    @Override
+    public boolean requiresExclusiveSynchronization() {
+        return false;
+    }
 }
@@ -60,4 +60,9 @@ public class ConnectionInfoExchangeImpl extends ConnectionInfoExchange {
     public Object getSynchronizationObject() {
         return DataStorage.get();
     }
+
+    @Override
+    public boolean requiresExclusiveSynchronization() {
+        return false;
+    }
 }
@@ -20,4 +20,9 @@ public class ConnectionQueryExchangeImpl extends ConnectionQueryExchange {
     public Object getSynchronizationObject() {
         return DataStorage.get();
     }
+
+    @Override
+    public boolean requiresExclusiveSynchronization() {
+        return false;
+    }
 }
@@ -23,7 +23,14 @@ public class ConnectionRefreshExchangeImpl extends ConnectionRefreshExchange {
     }
 
     @Override
-    public Object getSynchronizationObject() {
-        return DataStorage.get();
+    public Object getSynchronizationObject(Request msg) {
+        // Refreshes can take a long time, so only refreshes of the same connection wait for each other
+        // Other exchanges, e.g. queries, are not blocked, the storage handles concurrent changes itself
+        return DataStorage.get().getStoreEntryIfPresent(msg.getConnection()).orElse(null);
+    }
+
+    @Override
+    public int getMaxConcurrentRequests() {
+        return 4;
     }
 }
@@ -27,4 +27,9 @@ public class ConnectionTerminalExchangeImpl extends ConnectionTerminalExchange {
     public Object getSynchronizationObject() {
         return DataStorage.get();
     }
+
+    @Override
+    public boolean requiresExclusiveSynchronization() {
+        return false;
+    }
 }
@@ -15,8 +15,9 @@ public class FsBlobExchangeImpl extends FsBlobExchange {
     public Object handle(HttpExchange exchange, Request msg) {
         var id = UUID.randomUUID();
 
-        var size = exchange.getRequestBody().available();
-        if (size > 100_000_000) {
+        // The available bytes of the body stream don't say anything about the full size
+        var length = FsUploadExchangeImpl.getContentLength(exchange);
+        if (length < 0 || length > 100_000_000) {
             BlobManager.get().store(id, exchange.getRequestBody());
         } else {
             BlobManager.get().store(id, exchange.getRequestBody().readAllBytes());
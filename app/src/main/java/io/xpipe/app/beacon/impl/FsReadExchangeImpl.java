@@ -1,7 +1,6 @@
 package io.xpipe.app.beacon.impl;
 
 import io.xpipe.app.beacon.AppBeaconServer;
-import io.xpipe.app.beacon.BlobManager;
 import io.xpipe.app.ext.ConnectionFileSystem;
 import io.xpipe.app.util.FixedSizeInputStream;
 import io.xpipe.beacon.BeaconClientException;
@@ -12,7 +11,6 @@ import lombok.SneakyThrows;
 
 import java.io.BufferedInputStream;
 import java.io.OutputStream;
-import java.nio.file.Files;
 
 public class FsReadExchangeImpl extends FsReadExchange {
 
@@ -20,40 +18,23 @@ public class FsReadExchangeImpl extends FsReadExchange {
     @SneakyThrows
     public Object handle(HttpExchange exchange, Request msg) {
         var shell = AppBeaconServer.get().getCache().getShellSession(msg.getConnection());
-        var fs = new ConnectionFileSystem(shell.getControl());
-
-        if (!fs.fileExists(msg.getPath())) {
-            throw new BeaconClientException("File does not exist");
-        }
-
-        var size = fs.getFileSize(msg.getPath());
-        if (size > 100_000_000) {
-            var file = BlobManager.get().newBlobFile();
-            try (var in = fs.openInput(msg.getPath())) {
-                var fixedIn = new FixedSizeInputStream(new BufferedInputStream(in), size);
-                try (var fileOut =
-                        Files.newOutputStream(file.resolve(msg.getPath().getFileName()))) {
-                    fixedIn.transferTo(fileOut);
-                }
-                in.transferTo(OutputStream.nullOutputStream());
+        // Hold a lease for the whole transfer so that the shell is not closed as idle in the meantime
+        try (var lease = shell.acquire()) {
+            var fs = new ConnectionFileSystem(lease.getControl());
+            if (!fs.fileExists(msg.getPath())) {
+                throw new BeaconClientException("File does not exist");
             }
 
-            exchange.sendResponseHeaders(200, size);
-            try (var fileIn = Files.newInputStream(file);
-                    var out = exchange.getResponseBody()) {
-                fileIn.transferTo(out);
-            }
-        } else {
-            byte[] bytes;
+            var size = fs.getFileSize(msg.getPath());
             try (var in = fs.openInput(msg.getPath())) {
-                var fixedIn = new FixedSizeInputStream(new BufferedInputStream(in), size);
-                bytes = fixedIn.readAllBytes();
+                var fixedIn = new FixedSizeInputStream(new BufferedInputStream(in, 64 * 1024), size);
+                // Pass the file contents through directly instead of holding them in memory or on disk
+                exchange.sendResponseHeaders(200, size > 0 ? size : -1);
+                try (var out = exchange.getResponseBody()) {
+                    fixedIn.transferTo(out);
+                }
                 in.transferTo(OutputStream.nullOutputStream());
             }
-            exchange.sendResponseHeaders(200, bytes.length);
-            try (var out = exchange.getResponseBody()) {
-                out.write(bytes);
-            }
         }
         return Response.builder().build();
     }
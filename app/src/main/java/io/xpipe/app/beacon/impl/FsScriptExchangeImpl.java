@@ -20,8 +20,10 @@ public class FsScriptExchangeImpl extends FsScriptExchange {
         try (var in = BlobManager.get().getBlob(msg.getBlob())) {
             data = new String(in.readAllBytes(), StandardCharsets.UTF_8);
         }
-        data = shell.getControl().getShellDialect().prepareScriptContent(data);
-        var file = ScriptHelper.createExecScript(shell.getControl(), data);
-        return Response.builder().path(file).build();
+        try (var lease = shell.acquire()) {
+            data = lease.getControl().getShellDialect().prepareScriptContent(data);
+            var file = ScriptHelper.createExecScript(lease.getControl(), data);
+            return Response.builder().path(file).build();
+        }
     }
 }
@@ -0,0 +1,99 @@
+package io.xpipe.app.beacon.impl;
+
+import io.xpipe.app.beacon.AppBeaconServer;
+import io.xpipe.app.beacon.BlobManager;
+import io.xpipe.app.ext.ConnectionFileSystem;
+import io.xpipe.beacon.BeaconClientException;
+import io.xpipe.beacon.api.FsUploadExchange;
+import io.xpipe.core.store.FilePath;
+
+import com.sun.net.httpserver.HttpExchange;
+import lombok.SneakyThrows;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class FsUploadExchangeImpl extends FsUploadExchange {
+
+    static long getContentLength(HttpExchange exchange) {
+        var header = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (header == null) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(header.strip());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> getQueryParameters(HttpExchange exchange) {
+        var map = new HashMap<String, String>();
+        var query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return map;
+        }
+
+        for (String pair : query.split("&")) {
+            var index = pair.indexOf('=');
+            if (index <= 0) {
+                continue;
+            }
+
+            map.put(
+                    URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+
+    @Override
+    @SneakyThrows
+    public Object handle(HttpExchange exchange, Request msg) {
+        var parameters = getQueryParameters(exchange);
+        var connection = parameters.get("connection");
+        var path = parameters.get("path");
+        if (connection == null || path == null) {
+            throw new BeaconClientException("Missing connection or path query parameter");
+        }
+
+        UUID connectionId;
+        try {
+            connectionId = UUID.fromString(connection);
+        } catch (IllegalArgumentException ex) {
+            throw new BeaconClientException("Invalid connection id " + connection);
+        }
+
+        var shell = AppBeaconServer.get().getCache().getShellSession(connectionId);
+        var length = getContentLength(exchange);
+        if (length >= 0) {
+            // Pass the body through directly as we know the size beforehand
+            // The lease is held for the whole transfer so that the shell is not closed as idle in the meantime
+            try (var lease = shell.acquire();
+                    var in = exchange.getRequestBody();
+                    var os = new ConnectionFileSystem(lease.getControl()).openOutput(FilePath.of(path), length)) {
+                in.transferTo(os);
+            }
+            return Response.builder().build();
+        }
+
+        // For chunked requests, the size is only known after receiving everything
+        var id = UUID.randomUUID();
+        try {
+            BlobManager.get().store(id, exchange.getRequestBody());
+            try (var lease = shell.acquire();
+                    var in = BlobManager.get().getBlob(id);
+                    var os = new ConnectionFileSystem(lease.getControl())
+                            .openOutput(FilePath.of(path), BlobManager.get().getBlobSize(id))) {
+                in.transferTo(os);
+            }
+        } finally {
+            BlobManager.get().remove(id);
+        }
+        return Response.builder().build();
+    }
+}
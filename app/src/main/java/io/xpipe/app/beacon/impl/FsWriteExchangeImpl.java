@@ -14,9 +14,10 @@ public class FsWriteExchangeImpl extends FsWriteExchange {
     @SneakyThrows
     public Object handle(HttpExchange exchange, Request msg) {
         var shell = AppBeaconServer.get().getCache().getShellSession(msg.getConnection());
-        var fs = new ConnectionFileSystem(shell.getControl());
-        try (var in = BlobManager.get().getBlob(msg.getBlob());
-                var os = fs.openOutput(msg.getPath(), in.available())) {
+        var size = BlobManager.get().getBlobSize(msg.getBlob());
+        try (var lease = shell.acquire();
+                var in = BlobManager.get().getBlob(msg.getBlob());
+                var os = new ConnectionFileSystem(lease.getControl()).openOutput(msg.getPath(), size)) {
             in.transferTo(os);
         }
         return Response.builder().build();
@@ -17,7 +17,9 @@ public class ShellExecExchangeImpl extends ShellExecExchange {
         AtomicReference<String> out = new AtomicReference<>();
         AtomicReference<String> err = new AtomicReference<>();
         long exitCode;
-        try (var command = existing.getControl().command(msg.getCommand()).start()) {
+        // Use a separate shell if one is available so that other commands don't have to wait
+        try (var lease = existing.acquire();
+                var command = lease.getControl().command(msg.getCommand()).start()) {
             var r = command.readStdoutAndStderr();
             out.set(r[0]);
             err.set(r[1]);
@@ -0,0 +1,79 @@
+package io.xpipe.app.beacon.impl;
+
+import io.xpipe.app.beacon.AppBeaconServer;
+import io.xpipe.beacon.api.ShellExecStreamExchange;
+
+import com.sun.net.httpserver.HttpExchange;
+import lombok.SneakyThrows;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ShellExecStreamExchangeImpl extends ShellExecStreamExchange {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    @SneakyThrows
+    public Object handle(HttpExchange exchange, Request msg) {
+        var existing = AppBeaconServer.get().getCache().getShellSession(msg.getConnection());
+        try (var lease = existing.acquire();
+                var command = lease.getControl().command(msg.getCommand()).start()) {
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (var out = new DataOutputStream(exchange.getResponseBody())) {
+                var lock = new ReentrantLock();
+                // Writing blocks if the client does not keep up, which in turn stops us from reading the process output
+                var stderr = CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                pump(command.getStderr(), out, lock, STDERR);
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        },
+                        Thread::startVirtualThread);
+                pump(command.getStdout(), out, lock, STDOUT);
+                stderr.join();
+
+                command.close();
+                writeFrame(
+                        out,
+                        lock,
+                        EXIT,
+                        ByteBuffer.allocate(Long.BYTES)
+                                .putLong(command.getExitCode())
+                                .array(),
+                        Long.BYTES);
+            }
+        }
+        return Response.builder().build();
+    }
+
+    private static void pump(InputStream in, DataOutputStream out, ReentrantLock lock, int type) throws IOException {
+        var buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (read > 0) {
+                writeFrame(out, lock, type, buffer, read);
+            }
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, ReentrantLock lock, int type, byte[] data, int length)
+            throws IOException {
+        lock.lock();
+        try {
+            out.writeByte(type);
+            out.writeInt(length);
+            out.write(data, 0, length);
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -5,11 +5,14 @@ import io.xpipe.app.beacon.BeaconShellSession;
 import io.xpipe.app.ext.ShellStore;
 import io.xpipe.app.storage.DataStorage;
 import io.xpipe.beacon.BeaconClientException;
+import io.xpipe.beacon.BeaconConfig;
 import io.xpipe.beacon.api.ShellStartExchange;
 
 import com.sun.net.httpserver.HttpExchange;
 import lombok.SneakyThrows;
 
+import java.util.Optional;
+
 public class ShellStartExchangeImpl extends ShellStartExchange {
 
     @Override
@@ -22,9 +25,8 @@ public class ShellStartExchangeImpl extends ShellStartExchange {
             throw new BeaconClientException("Not a shell connection");
         }
 
-        var existing = AppBeaconServer.get().getCache().getShellSessions().stream()
-                .filter(beaconShellSession -> beaconShellSession.getEntry().equals(e))
-                .findFirst();
+        var existing = Optional.ofNullable(
+                AppBeaconServer.get().getCache().getShellSessions().get(e.getUuid()));
         var control = (existing.isPresent()
                 ? existing.get().getControl()
                 : s.standaloneControl().start());
@@ -38,7 +40,9 @@ public class ShellStartExchangeImpl extends ShellStartExchange {
         }
 
         if (existing.isEmpty()) {
-            AppBeaconServer.get().getCache().getShellSessions().add(new BeaconShellSession(e, control));
+            AppBeaconServer.get()
+                    .getCache()
+                    .addShellSession(new BeaconShellSession(e, control, BeaconConfig.getShellSessionPoolSize()));
         }
         return Response.builder()
                 .shellDialect(control.getShellDialect())
@@ -12,8 +12,7 @@ public class ShellStopExchangeImpl extends ShellStopExchange {
     @SneakyThrows
     public Object handle(HttpExchange exchange, Request msg) {
         var e = AppBeaconServer.get().getCache().getShellSession(msg.getConnection());
-        e.getControl().close();
-        AppBeaconServer.get().getCache().getShellSessions().remove(e);
+        AppBeaconServer.get().getCache().removeShellSession(e);
         return Response.builder().build();
     }
 }
@@ -66,4 +66,9 @@ public class TerminalExternalLaunchExchangeImpl extends TerminalExternalLaunchEx
     public Object getSynchronizationObject() {
         return DataStorage.get();
     }
+
+    @Override
+    public boolean requiresExclusiveSynchronization() {
+        return false;
+    }
 }
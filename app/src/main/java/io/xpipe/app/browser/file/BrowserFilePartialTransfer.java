@@ -0,0 +1,115 @@
+package io.xpipe.app.browser.file;
+
+import io.xpipe.app.util.ShellControlCache;
+import io.xpipe.core.process.CommandBuilder;
+import io.xpipe.core.process.OsType;
+import io.xpipe.core.process.ShellControl;
+import io.xpipe.core.store.FilePath;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Commands to read and write only parts of a file, used to resume interrupted transfers
+ * and to only send the changed blocks of a file that already exists on the target.
+ * All of these commands are run through sh, so they only work between unix systems.
+ */
+public class BrowserFilePartialTransfer {
+
+    static final int BLOCK_SIZE = 1024 * 1024;
+
+    private static boolean isUnix(ShellControlCache cache) {
+        return cache.getShellControl().getOsType() != OsType.WINDOWS
+                && cache.isApplicationInPath("sh");
+    }
+
+    public static boolean supportsResume(ShellControlCache source, ShellControlCache target) {
+        return isUnix(source)
+                && isUnix(target)
+                && source.isApplicationInPath("tail")
+                && target.isApplicationInPath("head")
+                && target.isApplicationInPath("date");
+    }
+
+    public static boolean supportsDelta(ShellControlCache source, ShellControlCache target) {
+        return isUnix(source)
+                && isUnix(target)
+                && source.isApplicationInPath("dd")
+                && source.isApplicationInPath("md5sum")
+                && target.isApplicationInPath("dd")
+                && target.isApplicationInPath("md5sum")
+                && target.isApplicationInPath("head");
+    }
+
+    public static InputStream openInput(ShellControl sc, FilePath file, long offset) throws Exception {
+        return sc.command(CommandBuilder.of()
+                        .add("tail", "-c", "+" + (offset + 1))
+                        .addFile(file))
+                .startExternalStdout();
+    }
+
+    /**
+     * Returns the modification time of the file in seconds precision.
+     */
+    public static Instant getModified(ShellControl sc, FilePath file) throws Exception {
+        var out = sc.command(sh("date -r " + quote(file) + " +%s")).readStdoutOrThrow();
+        return Instant.ofEpochSecond(Long.parseLong(out.strip()));
+    }
+
+    public static OutputStream openAppend(ShellControl sc, FilePath file, long bytes) throws Exception {
+        // The input is not closed at the end as it is the shell input, so only read as much as we expect
+        return openOutput(sc, "head -c " + bytes + " >> " + quote(file));
+    }
+
+    public static InputStream openBlockInput(ShellControl sc, FilePath file, long block) throws Exception {
+        return sc.command(sh("dd if=" + quote(file) + " bs=" + BLOCK_SIZE + " skip=" + block + " count=1 2>/dev/null"))
+                .startExternalStdout();
+    }
+
+    public static OutputStream openBlockOutput(ShellControl sc, FilePath file, long block, long bytes)
+            throws Exception {
+        return openOutput(
+                sc,
+                "head -c " + bytes + " | dd of=" + quote(file) + " bs=" + BLOCK_SIZE + " seek=" + block
+                        + " conv=notrunc 2>/dev/null");
+    }
+
+    public static List<String> checksums(ShellControl sc, FilePath file, long size) throws Exception {
+        var blocks = blockCount(size);
+        if (blocks == 0) {
+            return List.of();
+        }
+
+        // Compute all block checksums in one command to avoid a round trip per block
+        var script = "i=0; while [ $i -lt " + blocks + " ]; do dd if=" + quote(file) + " bs=" + BLOCK_SIZE
+                + " skip=$i count=1 2>/dev/null | md5sum; i=$((i+1)); done";
+        var out = sc.command(sh(script)).readStdoutOrThrow();
+        return Arrays.stream(out.split("\\R"))
+                .map(String::strip)
+                .filter(s -> !s.isEmpty())
+                .map(s -> s.split("\\s+")[0])
+                .toList();
+    }
+
+    public static long blockCount(long size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static OutputStream openOutput(ShellControl sc, String script) throws Exception {
+        var cmd = sc.command(sh(script));
+        cmd.setExitTimeout(Duration.ofMillis(Long.MAX_VALUE));
+        return cmd.startExternalStdin();
+    }
+
+    private static CommandBuilder sh(String script) {
+        return CommandBuilder.of().add("sh", "-c").addLiteral(script);
+    }
+
+    private static String quote(FilePath file) {
+        return "'" + file.toString().replace("'", "'\\''") + "'";
+    }
+}
@@ -1,12 +1,14 @@
 package io.xpipe.app.browser.file;
 
 import io.xpipe.app.util.PasswdFile;
+import io.xpipe.app.util.ShellCapabilityCache;
 import io.xpipe.app.util.ShellControlCache;
 import io.xpipe.core.process.CommandBuilder;
 import io.xpipe.core.process.OsType;
 import io.xpipe.core.process.ShellControl;
 import io.xpipe.core.process.ShellDialect;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.Getter;
 
 import java.util.LinkedHashMap;
@@ -27,9 +29,15 @@ public class BrowserFileSystemCache extends ShellControlCache {
         ShellControl sc = model.getFileSystem().getShell().get();
         ShellDialect d = sc.getShellDialect();
         // If there is no id command, we should still be fine with just assuming root
-        username = d.printUsernameCommand(sc).readStdoutIfPossible().orElse("root");
-        passwdFile = PasswdFile.parse(sc);
-        loadGroups();
+        username = ShellCapabilityCache.getOrCompute(sc, "username", String.class, () -> {
+            return d.printUsernameCommand(sc).readStdoutIfPossible().orElse("root");
+        });
+        var users = ShellCapabilityCache.getOrCompute(sc, "users", new TypeReference<Map<Integer, String>>() {}, () -> {
+            return PasswdFile.parse(sc).getUsers();
+        });
+        passwdFile = PasswdFile.of(users);
+        groups.putAll(ShellCapabilityCache.getOrCompute(
+                sc, "groups", new TypeReference<LinkedHashMap<Integer, String>>() {}, this::loadGroups));
     }
 
     public Map<Integer, String> getUsers() {
@@ -48,10 +56,11 @@ public class BrowserFileSystemCache extends ShellControlCache {
                 .orElse(0);
     }
 
-    private void loadGroups() throws Exception {
+    private LinkedHashMap<Integer, String> loadGroups() throws Exception {
+        var groups = new LinkedHashMap<Integer, String>();
         var sc = model.getFileSystem().getShell().orElseThrow();
         if (sc.getOsType() == OsType.WINDOWS || sc.getOsType() == OsType.MACOS) {
-            return;
+            return groups;
         }
 
         var lines = sc.command(CommandBuilder.of().add("cat").addFile("/etc/group"))
@@ -68,6 +77,7 @@ public class BrowserFileSystemCache extends ShellControlCache {
         if (groups.isEmpty()) {
             groups.put(0, "root");
         }
+        return groups;
     }
 
     public boolean isRoot() {
@@ -0,0 +1,176 @@
+package io.xpipe.app.browser.file;
+
+import io.xpipe.app.util.ThreadHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies a stream with a separate reader and writer thread, so reading the next chunk from the source
+ * can happen while the previous one is still being written to the target.
+ * The buffers are reused across transfers of the same engine.
+ */
+public class BrowserFileTransferEngine {
+
+    static final int BUFFER_SIZE = 512 * 1024;
+    private static final int BUFFER_COUNT = 2;
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+    private static final long CANCEL_CHECK_INTERVAL_MILLIS = 100;
+
+    private static final Chunk END = new Chunk(new byte[0], 0);
+
+    private byte[][] buffers;
+
+    /**
+     * Copies the input stream to the output stream. A negative expected size means that the size is not known
+     * beforehand, in which case the input stream is read until its end.
+     */
+    public long transfer(
+            String source, InputStream inputStream, OutputStream outputStream, long expectedSize, Listener listener)
+            throws Exception {
+        if (buffers == null) {
+            buffers = new byte[BUFFER_COUNT][BUFFER_SIZE];
+        }
+
+        var free = new ArrayBlockingQueue<byte[]>(BUFFER_COUNT);
+        var filled = new ArrayBlockingQueue<Chunk>(BUFFER_COUNT + 1);
+        for (byte[] buffer : buffers) {
+            free.add(buffer);
+        }
+
+        var done = new CompletableFuture<Void>();
+        var readCount = new AtomicLong();
+
+        var reader = ThreadHelper.createPlatformThread("transfer-read", true, () -> {
+            try {
+                // Empty files might not provide an end of stream until the command exits
+                while (expectedSize != 0 && !done.isDone()) {
+                    var buffer = free.take();
+                    var length = fill(inputStream, buffer);
+                    if (length > 0) {
+                        readCount.addAndGet(length);
+                        filled.put(new Chunk(buffer, length));
+                    }
+
+                    if (length < buffer.length) {
+                        break;
+                    }
+                }
+
+                if (expectedSize > 0 && readCount.get() < expectedSize) {
+                    throw new IOException("Source file " + source + " input did end prematurely");
+                }
+
+                filled.put(END);
+            } catch (Exception ex) {
+                done.completeExceptionally(ex);
+            }
+        });
+
+        var writer = ThreadHelper.createPlatformThread("transfer-write", true, () -> {
+            try {
+                var lastUpdate = System.currentTimeMillis();
+                var pending = 0L;
+                while (true) {
+                    var chunk = filled.take();
+                    if (chunk == END) {
+                        break;
+                    }
+
+                    if (listener.isCancelled()) {
+                        return;
+                    }
+
+                    outputStream.write(chunk.buffer, 0, chunk.length);
+                    free.put(chunk.buffer);
+                    pending += chunk.length;
+
+                    // Only report progress and check the streams in intervals, not for every chunk
+                    var now = System.currentTimeMillis();
+                    if (now - lastUpdate >= PROGRESS_INTERVAL_MILLIS) {
+                        listener.onProgress(pending);
+                        pending = 0;
+                        lastUpdate = now;
+
+                        if (!listener.isValid()) {
+                            throw new IOException("Transfer of " + source + " was interrupted");
+                        }
+                    }
+                }
+
+                listener.onProgress(pending);
+                done.complete(null);
+            } catch (Exception ex) {
+                done.completeExceptionally(ex);
+            }
+        });
+
+        reader.start();
+        writer.start();
+
+        try {
+            while (true) {
+                try {
+                    done.get(CANCEL_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException ignored) {
+                    if (listener.isCancelled()) {
+                        break;
+                    }
+                }
+            }
+        } catch (ExecutionException ex) {
+            abort(reader, writer, listener);
+            throw ex.getCause() instanceof Exception e ? e : ex;
+        }
+
+        if (listener.isCancelled()) {
+            // Assume that the transfer has stalled if it doesn't finish until then
+            writer.join(1000);
+            abort(reader, writer, listener);
+        }
+
+        return readCount.get();
+    }
+
+    private void abort(Thread reader, Thread writer, Listener listener) throws Exception {
+        // The threads might still hold on to the buffers, so don't reuse them
+        buffers = null;
+        reader.interrupt();
+        writer.interrupt();
+        listener.kill();
+    }
+
+    private static int fill(InputStream inputStream, byte[] buffer) throws IOException {
+        var offset = 0;
+        while (offset < buffer.length) {
+            var read = inputStream.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                break;
+            }
+
+            offset += read;
+        }
+        return offset;
+    }
+
+    private record Chunk(byte[] buffer, int length) {}
+
+    public interface Listener {
+
+        void onProgress(long transferred);
+
+        boolean isCancelled();
+
+        boolean isValid();
+
+        void kill() throws Exception;
+    }
+}
@@ -1,18 +1,25 @@
 package io.xpipe.app.browser.file;
 
 import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.util.ShellControlCache;
 import io.xpipe.app.util.ThreadHelper;
+import io.xpipe.core.process.CommandBuilder;
+import io.xpipe.core.process.OsType;
+import io.xpipe.core.process.ShellControl;
 import io.xpipe.core.store.*;
 
 import javafx.beans.property.BooleanProperty;
 
+import lombok.Value;
+
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -20,12 +27,24 @@ import java.util.regex.Pattern;
 
 public class BrowserFileTransferOperation {
 
+    // Each additional session opens new connections on both sides, which might require another login
+    // This is therefore only done when explicitly enabled
+    private static final String TRANSFER_SESSIONS_PROP = "io.xpipe.browser.transferSessions";
+    private static final int DEFAULT_TRANSFER_SESSIONS = 1;
+    private static final int PARALLEL_MIN_FILES = 16;
+    private static final String ARCHIVE_TRANSFER_PROP = "io.xpipe.browser.archiveTransfer";
+    private static final String ARCHIVE_COMPRESSION_PROP = "io.xpipe.browser.archiveCompression";
+    private static final String DELTA_TRANSFER_PROP = "io.xpipe.browser.deltaTransfer";
+    private static final long RESUME_MIN_SIZE = 16 * 1024 * 1024;
+
     private final FileEntry target;
     private final List<FileEntry> files;
     private final BrowserFileTransferMode transferMode;
     private final boolean checkConflicts;
     private final Consumer<BrowserTransferProgress> progress;
     private final BooleanProperty cancelled;
+    private final BrowserFileTransferEngine engine = new BrowserFileTransferEngine();
+    private final Map<ShellControl, ShellControlCache> shellCaches = new ConcurrentHashMap<>();
 
     BrowserAlerts.FileConflictChoice lastConflictChoice;
 
@@ -68,7 +87,7 @@ public class BrowserFileTransferOperation {
         return new BrowserFileTransferOperation(target, entries, transferMode, checkConflicts, progress, cancelled);
     }
 
-    private void updateProgress(BrowserTransferProgress progress) {
+    private synchronized void updateProgress(BrowserTransferProgress progress) {
         this.progress.accept(progress);
     }
 
@@ -287,8 +306,15 @@ public class BrowserFileTransferOperation {
             totalSize.addAndGet(source.getFileSizeLong().orElse(0));
         }
 
+        if (source.getKind() == FileKind.DIRECTORY && canTransferArchive(source)) {
+            transferArchive(source, totalSize.get());
+            updateProgress(BrowserTransferProgress.finished(source.getName(), totalSize.get()));
+            return;
+        }
+
         var start = Instant.now();
         AtomicLong transferred = new AtomicLong();
+        var fileTransfers = new LinkedHashMap<FileEntry, FilePath>();
         for (var e : flatFiles.entrySet()) {
             if (cancelled()) {
                 return;
@@ -319,14 +345,295 @@ public class BrowserFileTransferOperation {
                     }
                 }
 
-                transfer(sourceFile, targetFile, transferred, totalSize, start);
+                fileTransfers.put(sourceFile, targetFile);
             }
         }
+
+        var sessions = fileTransfers.size() >= PARALLEL_MIN_FILES ? getTransferSessions() : 1;
+        if (sessions > 1) {
+            transferParallel(source, fileTransfers, sessions, transferred, totalSize, start);
+        } else {
+            transferSerial(source, fileTransfers, transferred, totalSize, start);
+        }
         updateProgress(BrowserTransferProgress.finished(source.getName(), totalSize.get()));
     }
 
+    private void transferSerial(
+            FileEntry source,
+            Map<FileEntry, FilePath> fileTransfers,
+            AtomicLong transferred,
+            AtomicLong totalSize,
+            Instant start)
+            throws Exception {
+        for (var e : fileTransfers.entrySet()) {
+            if (cancelled()) {
+                return;
+            }
+
+            transfer(
+                    source.getFileSystem(),
+                    target.getFileSystem(),
+                    engine,
+                    e.getKey(),
+                    e.getValue(),
+                    transferred,
+                    totalSize,
+                    start);
+        }
+    }
+
+    private ShellControlCache getShellCache(ShellControl shellControl) {
+        return shellCaches.computeIfAbsent(shellControl, sc -> new ShellControlCache(sc));
+    }
+
+    private boolean canTransferArchive(FileEntry source) throws Exception {
+        if (!Boolean.parseBoolean(System.getProperty(ARCHIVE_TRANSFER_PROP, "true"))) {
+            return false;
+        }
+
+        var sourceShell = source.getFileSystem().getShell();
+        var targetShell = target.getFileSystem().getShell();
+        if (sourceShell.isEmpty() || targetShell.isEmpty()) {
+            return false;
+        }
+
+        // The available tar implementations and shells on Windows behave too differently
+        if (sourceShell.get().getOsType() == OsType.WINDOWS
+                || targetShell.get().getOsType() == OsType.WINDOWS) {
+            return false;
+        }
+
+        // An archive extraction would overwrite existing files without asking
+        if (checkConflicts
+                && target.getFileSystem()
+                        .directoryExists(target.getPath().join(source.getPath().getFileName()))) {
+            return false;
+        }
+
+        return getShellCache(sourceShell.get()).isApplicationInPath("tar")
+                && getShellCache(targetShell.get()).isApplicationInPath("tar");
+    }
+
+    private void transferArchive(FileEntry source, long totalSize) throws Exception {
+        var sourceShell = source.getFileSystem().getShell().orElseThrow();
+        var targetShell = target.getFileSystem().getShell().orElseThrow();
+        var compress = Boolean.parseBoolean(System.getProperty(ARCHIVE_COMPRESSION_PROP, "false"))
+                && getShellCache(sourceShell).isApplicationInPath("gzip")
+                && getShellCache(targetShell).isApplicationInPath("gzip");
+
+        var readCommand = sourceShell
+                .command(CommandBuilder.of()
+                        .add("tar", compress ? "-czf" : "-cf", "-")
+                        .addFile(source.getPath().getFileName()))
+                .withWorkingDirectory(source.getPath().getParent());
+        var writeCommand = targetShell
+                .command(CommandBuilder.of().add("tar", compress ? "-xzf" : "-xf", "-"))
+                .withWorkingDirectory(target.getPath());
+        writeCommand.setExitTimeout(Duration.ofMillis(Long.MAX_VALUE));
+
+        var start = Instant.now();
+        var transferred = new AtomicLong();
+        updateProgress(new BrowserTransferProgress(source.getName(), 0, totalSize, start));
+
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+        try {
+            inputStream = readCommand.startExternalStdout();
+            outputStream = writeCommand.startExternalStdin();
+            engine.transfer(
+                    source.getPath().toString(),
+                    inputStream,
+                    outputStream,
+                    -1,
+                    new BrowserFileTransferEngine.Listener() {
+                        @Override
+                        public void onProgress(long read) {
+                            // The archive size does not exactly match the file sizes, so stay below the total
+                            var current = Math.min(transferred.addAndGet(read), Math.max(totalSize - 1, 0));
+                            updateProgress(new BrowserTransferProgress(source.getName(), current, totalSize, start));
+                        }
+
+                        @Override
+                        public boolean isCancelled() {
+                            return cancelled();
+                        }
+
+                        @Override
+                        public boolean isValid() {
+                            return checkTransferValidity(source.getFileSystem(), target.getFileSystem());
+                        }
+
+                        @Override
+                        public void kill() throws Exception {
+                            killStreams(source.getFileSystem(), target.getFileSystem());
+                        }
+                    });
+            outputStream.flush();
+        } catch (Exception ex) {
+            updateProgress(BrowserTransferProgress.finished(source.getName(), transferred.get()));
+            closeStreamsQuietly(inputStream, outputStream);
+            throw ex;
+        }
+
+        closeStreams(inputStream, outputStream);
+    }
+
+    private static int getTransferSessions() {
+        try {
+            var prop = System.getProperty(TRANSFER_SESSIONS_PROP);
+            return prop != null ? Math.max(1, Integer.parseInt(prop)) : DEFAULT_TRANSFER_SESSIONS;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_TRANSFER_SESSIONS;
+        }
+    }
+
+    private void transferParallel(
+            FileEntry source,
+            Map<FileEntry, FilePath> fileTransfers,
+            int sessionCount,
+            AtomicLong transferred,
+            AtomicLong totalSize,
+            Instant start)
+            throws Exception {
+        var sessions = new ArrayList<TransferSession>();
+        sessions.add(new TransferSession(source.getFileSystem(), target.getFileSystem(), engine, false));
+        try {
+            // A shell can only run one command at a time and a sub-shell blocks its parent,
+            // so each session needs its own connection on both sides
+            for (int i = 1; i < sessionCount && !cancelled(); i++) {
+                var session = openTransferSession(source.getFileSystem(), target.getFileSystem());
+                if (session == null) {
+                    break;
+                }
+                sessions.add(session);
+            }
+
+            if (sessions.size() == 1) {
+                transferSerial(source, fileTransfers, transferred, totalSize, start);
+                return;
+            }
+
+            // Distribute files round-robin, idle sessions will steal work from the others
+            var queues = new ArrayList<Deque<Map.Entry<FileEntry, FilePath>>>();
+            for (int i = 0; i < sessions.size(); i++) {
+                queues.add(new ConcurrentLinkedDeque<>());
+            }
+            var index = 0;
+            for (var e : fileTransfers.entrySet()) {
+                queues.get(index++ % queues.size()).add(e);
+            }
+
+            var failure = new AtomicReference<Exception>();
+            var threads = new ArrayList<Thread>();
+            for (int i = 0; i < sessions.size(); i++) {
+                var session = sessions.get(i);
+                var own = queues.get(i);
+                var thread = ThreadHelper.createPlatformThread("transfer-session-" + i, true, () -> {
+                    try {
+                        while (!cancelled() && failure.get() == null) {
+                            var next = pollTransfer(own, queues);
+                            if (next == null) {
+                                break;
+                            }
+
+                            transfer(
+                                    session.getSourceFileSystem(),
+                                    session.getTargetFileSystem(),
+                                    session.getEngine(),
+                                    next.getKey(),
+                                    next.getValue(),
+                                    transferred,
+                                    totalSize,
+                                    start);
+                        }
+                    } catch (Exception ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        } finally {
+            for (TransferSession session : sessions) {
+                session.close();
+            }
+        }
+    }
+
+    private static Map.Entry<FileEntry, FilePath> pollTransfer(
+            Deque<Map.Entry<FileEntry, FilePath>> own, List<Deque<Map.Entry<FileEntry, FilePath>>> queues) {
+        var next = own.pollFirst();
+        if (next != null) {
+            return next;
+        }
+
+        for (var queue : queues) {
+            if (queue == own) {
+                continue;
+            }
+
+            var stolen = queue.pollLast();
+            if (stolen != null) {
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    private TransferSession openTransferSession(FileSystem sourceFs, FileSystem targetFs) {
+        FileSystem sourceCopy = null;
+        FileSystem targetCopy = null;
+        try {
+            sourceCopy = openFileSystemCopy(sourceFs);
+            targetCopy = sourceCopy != null ? openFileSystemCopy(targetFs) : null;
+            if (targetCopy == null) {
+                if (sourceCopy != null) {
+                    sourceCopy.close();
+                }
+                return null;
+            }
+
+            return new TransferSession(sourceCopy, targetCopy, new BrowserFileTransferEngine(), true);
+        } catch (Exception ex) {
+            // We can still continue with the sessions we already have
+            ErrorEvent.fromThrowable(ex).omit().expected().handle();
+            new TransferSession(sourceCopy, targetCopy, null, true).close();
+            return null;
+        }
+    }
+
+    private static FileSystem openFileSystemCopy(FileSystem fileSystem) throws Exception {
+        var shell = fileSystem.getShell();
+        if (shell.isEmpty()) {
+            return null;
+        }
+
+        var store = shell.get().getSourceStore().orElse(null);
+        if (!(store instanceof FileSystemStore fileSystemStore)) {
+            return null;
+        }
+
+        var copy = fileSystemStore.createFileSystem();
+        copy.open();
+        return copy;
+    }
+
     private void transfer(
-            FileEntry sourceFile, FilePath targetFile, AtomicLong transferred, AtomicLong totalSize, Instant start)
+            FileSystem sourceFs,
+            FileSystem targetFs,
+            BrowserFileTransferEngine engine,
+            FileEntry sourceFile,
+            FilePath targetFile,
+            AtomicLong transferred,
+            AtomicLong totalSize,
+            Instant start)
             throws Exception {
         if (cancelled()) {
             return;
@@ -334,12 +641,47 @@ public class BrowserFileTransferOperation {
 
         InputStream inputStream = null;
         OutputStream outputStream = null;
+        BrowserTransferJournal.Entry journalEntry = null;
+        var journaled = false;
         try {
-            var fileSize = sourceFile.getFileSystem().getFileSize(sourceFile.getPath());
+            var fileSize = sourceFs.getFileSize(sourceFile.getPath());
+            journalEntry = createJournalEntry(sourceFs, targetFs, sourceFile, targetFile, fileSize);
+            var offset = journalEntry != null ? getResumeOffset(targetFs, targetFile, journalEntry, fileSize) : 0;
+            if (offset == 0) {
+                if (journalEntry != null) {
+                    // Any previous partial copy will be overwritten
+                    BrowserTransferJournal.complete(journalEntry);
+                }
+
+                if (transferDelta(
+                        sourceFs, targetFs, engine, sourceFile, targetFile, fileSize, transferred, totalSize, start)) {
+                    return;
+                }
+            }
+
+            // The target shell can't run any other commands while we write to it, so look at the target now
+            Instant targetModified = null;
+            var canJournal = false;
+            if (journalEntry != null) {
+                try {
+                    targetModified = targetFs.fileExists(targetFile)
+                            ? BrowserFilePartialTransfer.getModified(targetFs.getShell().orElseThrow(), targetFile)
+                            : null;
+                    canJournal = true;
+                } catch (Exception ex) {
+                    // The transfer can still continue, it just can't be resumed
+                    ErrorEvent.fromThrowable(ex).omit().expected().handle();
+                }
+            }
 
             // Read the first few bytes to figure out possible command failure early
             // before creating the output stream
-            inputStream = new BufferedInputStream(sourceFile.getFileSystem().openInput(sourceFile.getPath()), 1024);
+            inputStream = new BufferedInputStream(
+                    offset > 0
+                            ? BrowserFilePartialTransfer.openInput(
+                                    sourceFs.getShell().orElseThrow(), sourceFile.getPath(), offset)
+                            : sourceFs.openInput(sourceFile.getPath()),
+                    1024);
             inputStream.mark(1024);
             var streamStart = new byte[1024];
             var streamStartLength = inputStream.read(streamStart, 0, 1024);
@@ -350,35 +692,237 @@ public class BrowserFileTransferOperation {
                 inputStream.reset();
             }
 
-            outputStream = target.getFileSystem().openOutput(targetFile, fileSize);
-            transferFile(sourceFile, inputStream, outputStream, transferred, totalSize, start, fileSize);
+            outputStream = offset > 0
+                    ? BrowserFilePartialTransfer.openAppend(
+                            targetFs.getShell().orElseThrow(), targetFile, fileSize - offset)
+                    : targetFs.openOutput(targetFile, fileSize);
+            if (canJournal) {
+                // Only record the transfer once the target has been opened for writing
+                // If we fail before that, the target might still be an unrelated file
+                BrowserTransferJournal.begin(journalEntry.toBuilder()
+                        .targetSize(offset)
+                        .targetModified(targetModified)
+                        .build());
+                journaled = true;
+            }
+            transferred.addAndGet(offset);
+            transferFile(
+                    sourceFs,
+                    targetFs,
+                    engine,
+                    sourceFile,
+                    inputStream,
+                    outputStream,
+                    transferred,
+                    totalSize,
+                    start,
+                    fileSize - offset);
             outputStream.flush();
             inputStream.transferTo(OutputStream.nullOutputStream());
         } catch (Exception ex) {
             // Mark progress as finished to reset any progress display
             updateProgress(BrowserTransferProgress.finished(sourceFile.getName(), transferred.get()));
 
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (Exception om) {
-                    // This is expected as the process control has to be killed
-                    // When calling close, it will throw an exception when it has to kill
-                    // ErrorEvent.fromThrowable(om).handle();
-                }
-            }
-            if (outputStream != null) {
-                try {
-                    outputStream.close();
-                } catch (Exception om) {
-                    // This is expected as the process control has to be killed
-                    // When calling close, it will throw an exception when it has to kill
-                    // ErrorEvent.fromThrowable(om).handle();
-                }
+            closeStreamsQuietly(inputStream, outputStream);
+            if (journaled) {
+                recordInterruption(targetFs, targetFile, journalEntry);
             }
             throw ex;
         }
 
+        closeStreams(inputStream, outputStream);
+        if (journaled && cancelled()) {
+            recordInterruption(targetFs, targetFile, journalEntry);
+        } else if (journalEntry != null) {
+            BrowserTransferJournal.complete(journalEntry);
+        }
+    }
+
+    private BrowserTransferJournal.Entry createJournalEntry(
+            FileSystem sourceFs, FileSystem targetFs, FileEntry sourceFile, FilePath targetFile, long fileSize) {
+        // Don't bother with small files, they are quicker to transfer again
+        if (fileSize < RESUME_MIN_SIZE) {
+            return null;
+        }
+
+        var sourceShell = sourceFs.getShell().orElse(null);
+        var targetShell = targetFs.getShell().orElse(null);
+        if (sourceShell == null || targetShell == null) {
+            return null;
+        }
+
+        var sourceStore = sourceShell.getSourceStoreId();
+        var targetStore = targetShell.getSourceStoreId();
+        if (sourceStore.isEmpty() || targetStore.isEmpty()) {
+            return null;
+        }
+
+        if (!BrowserFilePartialTransfer.supportsResume(getShellCache(sourceShell), getShellCache(targetShell))) {
+            return null;
+        }
+
+        return BrowserTransferJournal.Entry.builder()
+                .sourceStore(sourceStore.get())
+                .source(sourceFile.getPath().toString())
+                .size(fileSize)
+                .modified(sourceFile.getDate())
+                .targetStore(targetStore.get())
+                .target(targetFile.toString())
+                .started(Instant.now())
+                .build();
+    }
+
+    private void recordInterruption(
+            FileSystem targetFs, FilePath targetFile, BrowserTransferJournal.Entry journalEntry) {
+        try {
+            var size = targetFs.getFileSize(targetFile);
+            var modified = BrowserFilePartialTransfer.getModified(targetFs.getShell().orElseThrow(), targetFile);
+            BrowserTransferJournal.interrupt(journalEntry.toBuilder()
+                    .targetSize(size)
+                    .targetModified(modified)
+                    .interrupted(true)
+                    .build());
+        } catch (Exception ex) {
+            // The connection might be gone, the state recorded when starting will have to do
+            ErrorEvent.fromThrowable(ex).omit().expected().handle();
+        }
+    }
+
+    private long getResumeOffset(
+            FileSystem targetFs, FilePath targetFile, BrowserTransferJournal.Entry journalEntry, long fileSize)
+            throws Exception {
+        var recorded = BrowserTransferJournal.getIncomplete(journalEntry);
+        if (recorded.isEmpty() || !targetFs.fileExists(targetFile)) {
+            return 0;
+        }
+
+        var existing = targetFs.getFileSize(targetFile);
+        if (existing <= 0 || existing >= fileSize) {
+            return 0;
+        }
+
+        // Make sure that the target is still the partial copy we wrote and has not been replaced or modified
+        var modified = BrowserFilePartialTransfer.getModified(targetFs.getShell().orElseThrow(), targetFile);
+        var r = recorded.get();
+        boolean unchanged;
+        if (r.isInterrupted()) {
+            // We know the exact state in which we left the target
+            unchanged = existing == r.getTargetSize() && modified.equals(r.getTargetModified());
+        } else if (r.getTargetModified() == null) {
+            // The target did not exist before, so anything that is there now has been written by us
+            unchanged = existing >= r.getTargetSize();
+        } else {
+            // We only know the state from before writing, so any of our writes must have updated the target
+            unchanged = existing >= r.getTargetSize()
+                    && (r.getTargetSize() == 0
+                            ? modified.isAfter(r.getTargetModified())
+                            : !modified.isBefore(r.getTargetModified()));
+        }
+        return unchanged ? existing : 0;
+    }
+
+    private boolean transferDelta(
+            FileSystem sourceFs,
+            FileSystem targetFs,
+            BrowserFileTransferEngine engine,
+            FileEntry sourceFile,
+            FilePath targetFile,
+            long fileSize,
+            AtomicLong transferred,
+            AtomicLong totalSize,
+            Instant start)
+            throws Exception {
+        if (!Boolean.parseBoolean(System.getProperty(DELTA_TRANSFER_PROP, "false")) || fileSize < RESUME_MIN_SIZE) {
+            return false;
+        }
+
+        var sourceShell = sourceFs.getShell().orElse(null);
+        var targetShell = targetFs.getShell().orElse(null);
+        if (sourceShell == null
+                || targetShell == null
+                || !BrowserFilePartialTransfer.supportsDelta(getShellCache(sourceShell), getShellCache(targetShell))) {
+            return false;
+        }
+
+        if (!targetFs.fileExists(targetFile)) {
+            return false;
+        }
+
+        // We can't truncate the target in a portable way
+        var targetSize = targetFs.getFileSize(targetFile);
+        if (targetSize > fileSize) {
+            return false;
+        }
+
+        var blocks = BrowserFilePartialTransfer.blockCount(fileSize);
+        var sourceChecksums = BrowserFilePartialTransfer.checksums(sourceShell, sourceFile.getPath(), fileSize);
+        if (sourceChecksums.size() != blocks) {
+            return false;
+        }
+        var targetChecksums = BrowserFilePartialTransfer.checksums(targetShell, targetFile, targetSize);
+
+        for (int i = 0; i < blocks; i++) {
+            if (cancelled()) {
+                return true;
+            }
+
+            var blockStart = (long) i * BrowserFilePartialTransfer.BLOCK_SIZE;
+            var length = Math.min(BrowserFilePartialTransfer.BLOCK_SIZE, fileSize - blockStart);
+            if (i < targetChecksums.size() && targetChecksums.get(i).equals(sourceChecksums.get(i))) {
+                transferred.addAndGet(length);
+                continue;
+            }
+
+            InputStream inputStream = null;
+            OutputStream outputStream = null;
+            try {
+                inputStream = BrowserFilePartialTransfer.openBlockInput(sourceShell, sourceFile.getPath(), i);
+                outputStream = BrowserFilePartialTransfer.openBlockOutput(targetShell, targetFile, i, length);
+                transferFile(
+                        sourceFs,
+                        targetFs,
+                        engine,
+                        sourceFile,
+                        inputStream,
+                        outputStream,
+                        transferred,
+                        totalSize,
+                        start,
+                        length);
+                outputStream.flush();
+            } catch (Exception ex) {
+                updateProgress(BrowserTransferProgress.finished(sourceFile.getName(), transferred.get()));
+                closeStreamsQuietly(inputStream, outputStream);
+                throw ex;
+            }
+            closeStreams(inputStream, outputStream);
+        }
+        updateProgress(new BrowserTransferProgress(sourceFile.getName(), transferred.get(), totalSize.get(), start));
+        return true;
+    }
+
+    private static void closeStreamsQuietly(InputStream inputStream, OutputStream outputStream) {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (Exception om) {
+                // This is expected as the process control has to be killed
+                // When calling close, it will throw an exception when it has to kill
+                // ErrorEvent.fromThrowable(om).handle();
+            }
+        }
+        if (outputStream != null) {
+            try {
+                outputStream.close();
+            } catch (Exception om) {
+                // This is expected as the process control has to be killed
+                // When calling close, it will throw an exception when it has to kill
+                // ErrorEvent.fromThrowable(om).handle();
+            }
+        }
+    }
+
+    private static void closeStreams(InputStream inputStream, OutputStream outputStream) throws Exception {
         Exception exception = null;
         try {
             inputStream.close();
@@ -403,9 +947,10 @@ public class BrowserFileTransferOperation {
         source.getFileSystem().delete(source.getPath());
     }
 
-    private static final int DEFAULT_BUFFER_SIZE = 1024;
-
     private void transferFile(
+            FileSystem sourceFs,
+            FileSystem targetFs,
+            BrowserFileTransferEngine engine,
             FileEntry sourceFile,
             InputStream inputStream,
             OutputStream outputStream,
@@ -417,76 +962,38 @@ public class BrowserFileTransferOperation {
         // Initialize progress immediately prior to reading anything
         updateProgress(new BrowserTransferProgress(sourceFile.getName(), transferred.get(), total.get(), start));
 
-        var killStreams = new AtomicBoolean(false);
-        var exception = new AtomicReference<Exception>();
-        var thread = ThreadHelper.createPlatformThread("transfer", true, () -> {
-            try {
-                long readCount = 0;
-                var bs = (int) Math.min(DEFAULT_BUFFER_SIZE, expectedFileSize);
-                byte[] buffer = new byte[bs];
-                int read;
-                while ((read = inputStream.read(buffer, 0, bs)) > 0) {
-                    if (cancelled()) {
-                        killStreams.set(true);
-                        break;
+        engine.transfer(
+                sourceFile.getPath().toString(),
+                inputStream,
+                outputStream,
+                expectedFileSize,
+                new BrowserFileTransferEngine.Listener() {
+                    @Override
+                    public void onProgress(long read) {
+                        transferred.addAndGet(read);
+                        updateProgress(new BrowserTransferProgress(
+                                sourceFile.getName(), transferred.get(), total.get(), start));
                     }
 
-                    if (!checkTransferValidity()) {
-                        killStreams.set(true);
-                        break;
+                    @Override
+                    public boolean isCancelled() {
+                        return cancelled();
                     }
 
-                    outputStream.write(buffer, 0, read);
-                    transferred.addAndGet(read);
-                    readCount += read;
-                    updateProgress(
-                            new BrowserTransferProgress(sourceFile.getName(), transferred.get(), total.get(), start));
-                }
-
-                var incomplete = readCount < expectedFileSize;
-                if (incomplete) {
-                    throw new IOException("Source file " + sourceFile.getPath() + " input did end prematurely");
-                }
-            } catch (Exception ex) {
-                exception.set(ex);
-                killStreams.set(true);
-            }
-        });
-
-        thread.start();
-        while (true) {
-            var alive = thread.isAlive();
-            var cancelled = cancelled();
-
-            if (cancelled) {
-                // Assume that the transfer has stalled if it doesn't finish until then
-                thread.join(1000);
-                killStreams();
-                break;
-            }
-
-            if (alive) {
-                Thread.sleep(100);
-                continue;
-            }
-
-            if (killStreams.get()) {
-                killStreams();
-            }
+                    @Override
+                    public boolean isValid() {
+                        return checkTransferValidity(sourceFs, targetFs);
+                    }
 
-            var ex = exception.get();
-            if (ex != null) {
-                throw ex;
-            } else {
-                break;
-            }
-        }
+                    @Override
+                    public void kill() throws Exception {
+                        killStreams(sourceFs, targetFs);
+                    }
+                });
     }
 
-    private boolean checkTransferValidity() {
-        var sourceFs = files.getFirst().getFileSystem();
-        var targetFs = target.getFileSystem();
-        var same = files.getFirst().getFileSystem().equals(target.getFileSystem());
+    private boolean checkTransferValidity(FileSystem sourceFs, FileSystem targetFs) {
+        var same = sourceFs.equals(targetFs);
         if (!same) {
             var sourceShell = sourceFs.getShell().orElseThrow();
             var targetShell = targetFs.getShell().orElseThrow();
@@ -498,10 +1005,8 @@ public class BrowserFileTransferOperation {
         }
     }
 
-    private void killStreams() throws Exception {
-        var sourceFs = files.getFirst().getFileSystem();
-        var targetFs = target.getFileSystem();
-        var same = files.getFirst().getFileSystem().equals(target.getFileSystem());
+    private void killStreams(FileSystem sourceFs, FileSystem targetFs) throws Exception {
+        var same = sourceFs.equals(targetFs);
         if (!same) {
             var sourceShell = sourceFs.getShell().orElseThrow();
             var targetShell = targetFs.getShell().orElseThrow();
@@ -512,4 +1017,30 @@ public class BrowserFileTransferOperation {
             }
         }
     }
+
+    @Value
+    private static class TransferSession {
+        FileSystem sourceFileSystem;
+        FileSystem targetFileSystem;
+        BrowserFileTransferEngine engine;
+        boolean owned;
+
+        void close() {
+            if (!owned) {
+                return;
+            }
+
+            for (FileSystem fileSystem : new FileSystem[] {sourceFileSystem, targetFileSystem}) {
+                if (fileSystem == null) {
+                    continue;
+                }
+
+                try {
+                    fileSystem.close();
+                } catch (Exception ex) {
+                    ErrorEvent.fromThrowable(ex).omit().expected().handle();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package io.xpipe.app.browser.file;
+
+import io.xpipe.app.core.AppCache;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps track of file transfers that have been started but not completed.
+ * A target file that is listed here is a partial copy of the source and can be resumed
+ * as long as neither the source file nor the target file have been changed by someone else in the meantime.
+ */
+public class BrowserTransferJournal {
+
+    private static final String KEY = "transfer-journal";
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+
+    private static List<Entry> entries;
+
+    private static List<Entry> getEntries() {
+        if (entries == null) {
+            Journal journal = AppCache.getNonNull(KEY, Journal.class, () -> null);
+            entries = new ArrayList<>(
+                    journal != null && journal.getEntries() != null ? journal.getEntries() : List.of());
+            var now = Instant.now();
+            entries.removeIf(entry -> entry.getStarted() == null
+                    || entry.getStarted().plus(MAX_AGE).isBefore(now));
+        }
+        return entries;
+    }
+
+    private static void save() {
+        AppCache.update(KEY, Journal.builder().entries(new ArrayList<>(entries)).build());
+    }
+
+    public static synchronized Optional<Entry> getIncomplete(Entry entry) {
+        return getEntries().stream().filter(e -> e.matches(entry)).findFirst();
+    }
+
+    /**
+     * Records a transfer once the target has been opened for writing.
+     * Any previous entry for the same target is replaced.
+     */
+    public static synchronized void begin(Entry entry) {
+        getEntries().removeIf(e -> e.sameTarget(entry));
+        getEntries().add(entry);
+        save();
+    }
+
+    /**
+     * Records the final state of the target of a transfer that has been stopped.
+     */
+    public static synchronized void interrupt(Entry entry) {
+        if (getEntries().removeIf(e -> e.sameTarget(entry))) {
+            getEntries().add(entry);
+            save();
+        }
+    }
+
+    public static synchronized void complete(Entry entry) {
+        if (getEntries().removeIf(e -> e.sameTarget(entry))) {
+            save();
+        }
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Journal {
+        List<Entry> entries;
+    }
+
+    @Value
+    @Builder(toBuilder = true)
+    @Jacksonized
+    public static class Entry {
+        UUID sourceStore;
+        String source;
+        long size;
+        Instant modified;
+        UUID targetStore;
+        String target;
+        Instant started;
+        // The state of the target when the transfer was started, the modification time is null if it didn't exist
+        // If the transfer has been interrupted cleanly, this is the state in which the target was left
+        long targetSize;
+        Instant targetModified;
+        boolean interrupted;
+
+        boolean sameTarget(Entry other) {
+            return other.getTargetStore().equals(targetStore) && other.getTarget().equals(target);
+        }
+
+        boolean matches(Entry other) {
+            return sameTarget(other)
+                    && other.getSourceStore().equals(sourceStore)
+                    && other.getSource().equals(source)
+                    && other.getSize() == size
+                    && (other.getModified() == null
+                            ? modified == null
+                            : other.getModified().equals(modified));
+        }
+    }
+}
@@ -196,7 +196,7 @@ public class StoreCategoryWrapper {
 
         var directFiltered = directContainedEntries.getList().stream()
                 .filter(storeEntryWrapper -> storeEntryWrapper.matchesFilter(
-                        StoreViewState.get().getFilterString().getValue()))
+                        StoreViewState.get().getEffectiveFilterString().getValue()))
                 .count();
         var subFiltered = children.getList().stream()
                 .mapToInt(value -> value.shownContainedEntriesCount.get())
@@ -0,0 +1,167 @@
+package io.xpipe.app.comp.store;
+
+import io.xpipe.app.storage.DataStorage;
+import io.xpipe.app.storage.DataStoreEntry;
+import io.xpipe.app.util.DerivedObservableList;
+
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+
+import java.util.*;
+
+/**
+ * Maintains the children lists of all entries from a single pass over the entry list.
+ * Sections subscribe to the children list of their entry, so an added, removed, or moved entry
+ * only updates the children lists of its old and new parent instead of every section.
+ * Parents are only resolved again for entries whose state changed and for the entries related to them.
+ */
+public class StoreChildrenIndex {
+
+    private final Map<DataStoreEntry, DerivedObservableList<StoreEntryWrapper>> children = new HashMap<>();
+    private final Map<StoreEntryWrapper, DataStoreEntry> parents = new HashMap<>();
+    private final Map<DataStoreEntry, StoreEntryWrapper> wrappers = new HashMap<>();
+    private final Map<StoreEntryWrapper, ChangeListener<Object>> stateListeners = new HashMap<>();
+
+    public StoreChildrenIndex(DerivedObservableList<StoreEntryWrapper> all) {
+        synchronized (all.getList()) {
+            all.getList().forEach(this::add);
+        }
+        all.getList().addListener((ListChangeListener<? super StoreEntryWrapper>) c -> {
+            update(c);
+        });
+    }
+
+    public synchronized DerivedObservableList<StoreEntryWrapper> getChildren(DataStoreEntry parent) {
+        return children.computeIfAbsent(parent, k -> DerivedObservableList.synchronizedArrayList(true));
+    }
+
+    private synchronized void update(ListChangeListener.Change<? extends StoreEntryWrapper> c) {
+        var removedParents = new HashSet<DataStoreEntry>();
+        while (c.next()) {
+            if (c.wasPermutated() || c.wasUpdated()) {
+                continue;
+            }
+
+            for (StoreEntryWrapper w : c.getRemoved()) {
+                remove(w);
+                removedParents.add(w.getEntry());
+            }
+            for (StoreEntryWrapper w : c.getAddedSubList()) {
+                add(w);
+            }
+        }
+
+        // Remaining children of removed entries have to be placed somewhere else
+        for (DataStoreEntry entry : removedParents) {
+            if (!wrappers.containsKey(entry)) {
+                revalidateListed(entry);
+            }
+        }
+
+        // An entry might just have been moved, only drop lists of entries that are gone
+        for (DataStoreEntry entry : removedParents) {
+            var list = children.get(entry);
+            if (!wrappers.containsKey(entry) && list != null && list.getList().isEmpty()) {
+                children.remove(entry);
+            }
+        }
+    }
+
+    private void add(StoreEntryWrapper w) {
+        if (parents.containsKey(w)) {
+            return;
+        }
+
+        wrappers.put(w.getEntry(), w);
+        parents.put(w, null);
+        revalidate(w);
+        // Existing entries might have been waiting for their parent to show up
+        revalidateStorageChildren(w.getEntry());
+
+        // The parent and children of an entry can change with its store and state
+        ChangeListener<Object> listener = (observable, oldValue, newValue) -> {
+            revalidateChildren(w);
+        };
+        w.getStore().addListener(listener);
+        w.getValidity().addListener(listener);
+        w.getPersistentState().addListener(listener);
+        w.getCache().addListener(listener);
+        stateListeners.put(w, listener);
+    }
+
+    private void remove(StoreEntryWrapper w) {
+        if (!parents.containsKey(w)) {
+            return;
+        }
+
+        var parent = parents.remove(w);
+        if (parent != null) {
+            getChildren(parent).getList().remove(w);
+        }
+        wrappers.remove(w.getEntry(), w);
+
+        var listener = stateListeners.remove(w);
+        if (listener != null) {
+            w.getStore().removeListener(listener);
+            w.getValidity().removeListener(listener);
+            w.getPersistentState().removeListener(listener);
+            w.getCache().removeListener(listener);
+        }
+    }
+
+    private synchronized void revalidateChildren(StoreEntryWrapper w) {
+        if (!parents.containsKey(w)) {
+            return;
+        }
+
+        revalidate(w);
+        revalidateListed(w.getEntry());
+        revalidateStorageChildren(w.getEntry());
+    }
+
+    private void revalidateListed(DataStoreEntry entry) {
+        var list = children.get(entry);
+        if (list == null) {
+            return;
+        }
+
+        List<StoreEntryWrapper> current;
+        synchronized (list.getList()) {
+            current = new ArrayList<>(list.getList());
+        }
+        current.forEach(this::revalidate);
+    }
+
+    private void revalidateStorageChildren(DataStoreEntry entry) {
+        if (DataStorage.get() == null) {
+            return;
+        }
+
+        DataStorage.get().getStoreChildren(entry).stream()
+                .map(wrappers::get)
+                .filter(Objects::nonNull)
+                .forEach(this::revalidate);
+    }
+
+    private void revalidate(StoreEntryWrapper w) {
+        if (!parents.containsKey(w)) {
+            return;
+        }
+
+        var parent = DataStorage.get() != null
+                ? DataStorage.get().getStoreChildParent(w.getEntry()).orElse(null)
+                : null;
+        var old = parents.get(w);
+        if (Objects.equals(old, parent)) {
+            return;
+        }
+
+        parents.put(w, parent);
+        if (old != null) {
+            getChildren(old).getList().remove(w);
+        }
+        if (parent != null) {
+            getChildren(parent).getList().add(w);
+        }
+    }
+}
@@ -222,7 +222,7 @@ public abstract class StoreEntryComp extends SimpleComp {
                     var button = buildButton(actionProvider);
                     return button != null ? button.createRegion() : null;
                 })
-                .filtered(region -> region != null)
+                .filteredIncremental(region -> region != null)
                 .getList();
 
         var ig = new InputGroup();
@@ -11,6 +11,7 @@ import io.xpipe.app.storage.DataStoreColor;
 import io.xpipe.app.storage.DataStoreEntry;
 import io.xpipe.app.util.BindingsHelper;
 import io.xpipe.app.util.PlatformThread;
+import io.xpipe.app.util.PlatformUpdateScheduler;
 import io.xpipe.app.util.ThreadHelper;
 import io.xpipe.core.store.DataStore;
 import io.xpipe.core.store.SingletonSessionStore;
@@ -134,9 +135,16 @@ public class StoreEntryWrapper {
             entry.setExpanded(n);
         });
 
-        entry.addListener(() -> PlatformThread.runLaterIfNeeded(() -> {
-            update();
-        }));
+        // Many entries can change at once, e.g. during a scan, so only update once per batch
+        entry.addListener(() -> {
+            var state = StoreViewState.get();
+            if (state != null) {
+                state.getSearchIndex().update(entry);
+            }
+            PlatformUpdateScheduler.markDirty(this, () -> {
+                update();
+            });
+        });
 
         notes.addListener((observable, oldValue, newValue) -> {
             if (newValue.isCommited()) {
@@ -359,7 +367,18 @@ public class StoreEntryWrapper {
     }
 
     public boolean matchesFilter(String filter) {
-        if (filter == null || name.getValue().toLowerCase().contains(filter.toLowerCase())) {
+        if (filter == null) {
+            return true;
+        }
+
+        // Use the search index if it has a result for this filter
+        var state = StoreViewState.get();
+        var indexed = state != null ? state.getSearchIndex().matches(entry, filter) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+
+        if (name.getValue().toLowerCase().contains(filter.toLowerCase())) {
             return true;
         }
 
@@ -0,0 +1,340 @@
+package io.xpipe.app.comp.store;
+
+import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.storage.DataStorage;
+import io.xpipe.app.storage.DataStoreEntry;
+import io.xpipe.app.util.GlobalTimer;
+import io.xpipe.app.util.PlatformThread;
+import io.xpipe.app.util.ThreadHelper;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A background n-gram index over the searchable text of all entries.
+ * All grams up to a length of three are indexed, so short queries can be answered from a single lookup
+ * and longer queries only have to check the entries that contain all of their grams.
+ * Queries are debounced and their result is published on the platform thread.
+ * When entries are added, removed or changed, the current query is evaluated again and republished.
+ */
+public class StoreSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final Duration DEBOUNCE = Duration.ofMillis(150);
+
+    private final Map<String, Set<DataStoreEntry>> grams = new HashMap<>();
+    private final Map<DataStoreEntry, Document> documents = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        return ThreadHelper.createPlatformThread("store-search", true, r);
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile Result result;
+    private volatile Query currentQuery;
+
+    public void add(DataStoreEntry... entries) {
+        submit(() -> {
+            for (DataStoreEntry entry : entries) {
+                index(entry);
+            }
+            refresh();
+        });
+    }
+
+    public void remove(DataStoreEntry... entries) {
+        submit(() -> {
+            for (DataStoreEntry entry : entries) {
+                unindex(entry);
+            }
+            refresh();
+        });
+    }
+
+    /**
+     * Indexes the changed content of an entry again, e.g. its store, notes or cached information.
+     */
+    public void update(DataStoreEntry entry) {
+        submit(() -> {
+            var doc = documents.get(entry);
+            if (doc == null) {
+                return;
+            }
+
+            index(entry);
+            // The store paths of all children contain the name of this entry
+            if (!Objects.equals(doc.getName(), entry.getName()) && DataStorage.get() != null) {
+                DataStorage.get().getDeepStoreChildren(entry).stream()
+                        .filter(documents::containsKey)
+                        .forEach(this::index);
+            }
+            refresh();
+        });
+    }
+
+    public void rebuild() {
+        submit(() -> {
+            grams.clear();
+            documents.clear();
+            if (DataStorage.get() != null) {
+                DataStorage.get().getStoreEntries().forEach(this::index);
+            }
+            refresh();
+        });
+    }
+
+    /**
+     * Returns whether an entry matches the last published query,
+     * or null if the last published result is not for this filter.
+     */
+    public Boolean matches(DataStoreEntry entry, String filter) {
+        var r = result;
+        if (r == null || !r.getFilter().equals(filter)) {
+            return null;
+        }
+
+        return r.getRanks().containsKey(entry);
+    }
+
+    /**
+     * Returns the rank of an entry for the last published query. A lower rank is a better match.
+     */
+    public int getRank(DataStoreEntry entry, String filter) {
+        var r = result;
+        if (r == null || !r.getFilter().equals(filter)) {
+            return 0;
+        }
+
+        return r.getRanks().getOrDefault(entry, Integer.MAX_VALUE);
+    }
+
+    public void query(String filter, Consumer<String> onPublish) {
+        var current = generation.incrementAndGet();
+        if (filter == null || filter.isBlank()) {
+            currentQuery = null;
+            result = null;
+            PlatformThread.runLaterIfNeeded(() -> {
+                onPublish.accept(filter);
+            });
+            return;
+        }
+
+        currentQuery = new Query(filter, onPublish);
+        // Only evaluate the query once the user has stopped typing
+        GlobalTimer.delay(
+                () -> {
+                    if (generation.get() != current) {
+                        return;
+                    }
+
+                    submit(() -> {
+                        if (generation.get() != current) {
+                            return;
+                        }
+
+                        var r = search(filter);
+                        PlatformThread.runLaterIfNeeded(() -> {
+                            if (generation.get() != current) {
+                                return;
+                            }
+
+                            result = r;
+                            onPublish.accept(filter);
+                        });
+                    });
+                },
+                DEBOUNCE);
+    }
+
+    /**
+     * Evaluates the current query again after the index has changed.
+     * Refreshes are debounced as well, as many entries can change at once, e.g. during a scan.
+     */
+    private void refresh() {
+        if (currentQuery == null || !refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        GlobalTimer.delay(
+                () -> {
+                    submit(() -> {
+                        refreshScheduled.set(false);
+                        var q = currentQuery;
+                        var current = generation.get();
+                        if (q == null) {
+                            return;
+                        }
+
+                        var r = search(q.getFilter());
+                        PlatformThread.runLaterIfNeeded(() -> {
+                            // A newer query will publish its own result
+                            if (generation.get() != current) {
+                                return;
+                            }
+
+                            result = r;
+                            q.getOnPublish().accept(q.getFilter());
+                        });
+                    });
+                },
+                DEBOUNCE);
+    }
+
+    private void submit(Runnable r) {
+        executor.submit(() -> {
+            try {
+                r.run();
+            } catch (Throwable t) {
+                ErrorEvent.fromThrowable(t).omit().handle();
+            }
+        });
+    }
+
+    private Result search(String filter) {
+        var query = filter.toLowerCase(Locale.ROOT);
+        Collection<DataStoreEntry> candidates;
+        if (query.length() <= GRAM_SIZE) {
+            candidates = grams.getOrDefault(query, Set.of());
+        } else {
+            Set<DataStoreEntry> smallest = null;
+            for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+                var found = grams.getOrDefault(query.substring(i, i + GRAM_SIZE), Set.of());
+                if (smallest == null || found.size() < smallest.size()) {
+                    smallest = found;
+                }
+            }
+            candidates = smallest;
+        }
+
+        var ranks = new HashMap<DataStoreEntry, Integer>();
+        for (DataStoreEntry entry : candidates) {
+            var doc = documents.get(entry);
+            if (doc == null) {
+                continue;
+            }
+
+            var rank = doc.rank(query);
+            if (rank >= 0) {
+                ranks.put(entry, rank);
+            }
+        }
+        return new Result(filter, ranks);
+    }
+
+    private void index(DataStoreEntry entry) {
+        unindex(entry);
+
+        var doc = createDocument(entry);
+        documents.put(entry, doc);
+        var entryGrams = new HashSet<String>();
+        for (String term : doc.getTerms()) {
+            for (int i = 0; i < term.length(); i++) {
+                for (int l = 1; l <= GRAM_SIZE && i + l <= term.length(); l++) {
+                    entryGrams.add(term.substring(i, i + l));
+                }
+            }
+        }
+        for (String gram : entryGrams) {
+            grams.computeIfAbsent(gram, k -> new HashSet<>()).add(entry);
+        }
+        doc.getGrams().addAll(entryGrams);
+    }
+
+    private void unindex(DataStoreEntry entry) {
+        var doc = documents.remove(entry);
+        if (doc == null) {
+            return;
+        }
+
+        for (String gram : doc.getGrams()) {
+            var set = grams.get(gram);
+            if (set != null) {
+                set.remove(entry);
+                if (set.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private Document createDocument(DataStoreEntry entry) {
+        var name = entry.getName();
+        var terms = new ArrayList<String>();
+        terms.add(name != null ? name.toLowerCase(Locale.ROOT) : "");
+        try {
+            if (DataStorage.get() != null) {
+                terms.add(DataStorage.get().getStorePath(entry).toString().toLowerCase(Locale.ROOT));
+            }
+
+            if (entry.getNotes() != null) {
+                terms.add(entry.getNotes().toLowerCase(Locale.ROOT));
+            }
+
+            synchronized (entry.getStoreCache()) {
+                entry.getStoreCache().values().stream()
+                        .filter(o -> o instanceof CharSequence || o instanceof Number || o instanceof Enum<?>)
+                        .map(o -> o.toString().toLowerCase(Locale.ROOT))
+                        .forEach(terms::add);
+            }
+
+            if (entry.getValidity().isUsable()) {
+                terms.add(entry.getProvider().getId().toLowerCase(Locale.ROOT));
+                entry.getProvider().getSearchableTerms(entry.getStore()).stream()
+                        .filter(Objects::nonNull)
+                        .map(s -> s.toLowerCase(Locale.ROOT))
+                        .forEach(terms::add);
+            }
+        } catch (Exception ex) {
+            ErrorEvent.fromThrowable(ex).omit().expected().handle();
+        }
+        return new Document(name, terms, new HashSet<>());
+    }
+
+    @Value
+    private static class Document {
+        String name;
+        List<String> terms;
+        Set<String> grams;
+
+        int rank(String query) {
+            var n = terms.getFirst();
+            if (n.equals(query)) {
+                return 0;
+            }
+
+            if (n.startsWith(query)) {
+                return 1;
+            }
+
+            if (n.contains(query)) {
+                return 2;
+            }
+
+            for (int i = 1; i < terms.size(); i++) {
+                if (terms.get(i).contains(query)) {
+                    return 2 + i;
+                }
+            }
+
+            return -1;
+        }
+    }
+
+    @Value
+    private static class Query {
+        String filter;
+        Consumer<String> onPublish;
+    }
+
+    @Value
+    private static class Result {
+        String filter;
+        Map<DataStoreEntry, Integer> ranks;
+    }
+}
@@ -60,6 +60,7 @@ public class StoreSection {
     private static DerivedObservableList<StoreSection> sorted(
             DerivedObservableList<StoreSection> list,
             ObservableValue<StoreCategoryWrapper> category,
+            ObservableValue<String> filterString,
             ObservableIntegerValue updateObservable) {
         var explicitOrderComp = Comparator.<StoreSection>comparingInt(new ToIntFunction<>() {
             @Override
@@ -82,13 +83,27 @@ public class StoreSection {
         var comp = explicitOrderComp;
         var mappedSortMode =
                 BindingsHelper.flatMap(category, storeCategoryWrapper -> storeCategoryWrapper.getSortMode());
-        return list.sorted(
+        // Sort keys only change together with the observables, so we only have to sort everything again then
+        return list.sortedIncremental(
                 (o1, o2) -> {
                     var r = comp.compare(o1, o2);
                     if (r != 0) {
                         return r;
                     }
 
+                    // Show better search matches first
+                    var state = StoreViewState.get();
+                    if (state != null && filterString != null && filterString.getValue() != null) {
+                        var index = state.getSearchIndex();
+                        var filter = filterString.getValue();
+                        var rank = Integer.compare(
+                                index.getRank(o1.getWrapper().getEntry(), filter),
+                                index.getRank(o2.getWrapper().getEntry(), filter));
+                        if (rank != 0) {
+                            return rank;
+                        }
+                    }
+
                     var current = mappedSortMode.getValue();
                     if (current != null) {
                         return current.comparator().compare(o1, o2);
@@ -97,6 +112,7 @@ public class StoreSection {
                     }
                 },
                 mappedSortMode,
+                filterString,
                 updateObservable);
     }
 
@@ -108,26 +124,29 @@ public class StoreSection {
             ObservableValue<StoreCategoryWrapper> category,
             ObservableIntegerValue visibilityObservable,
             ObservableIntegerValue updateObservable) {
-        var topLevel = all.filtered(
+        // Whether an entry is a root entry only changes together with the observables
+        var topLevel = all.filteredIncremental(
                 section -> {
                     return DataStorage.get()
                             .isRootEntry(section.getEntry(), category.getValue().getCategory());
                 },
                 category,
                 updateObservable);
+        // Shared by all sections so that each section does not have to go through all entries to find its children
+        var index = new StoreChildrenIndex(all);
         var cached = topLevel.mapped(storeEntryWrapper -> create(
                 List.of(),
                 storeEntryWrapper,
                 1,
-                all,
+                index,
                 selected,
                 entryFilter,
                 filterString,
                 category,
                 visibilityObservable,
                 updateObservable));
-        var ordered = sorted(cached, category, updateObservable);
-        var shown = ordered.filtered(
+        var ordered = sorted(cached, category, filterString, updateObservable);
+        var shown = ordered.filteredIncremental(
                 section -> {
                     // matches filter
                     return (filterString == null || section.matchesFilter(filterString.getValue()))
@@ -148,7 +167,7 @@ public class StoreSection {
             List<StoreEntryWrapper> parents,
             StoreEntryWrapper e,
             int depth,
-            DerivedObservableList<StoreEntryWrapper> all,
+            StoreChildrenIndex index,
             Set<StoreEntryWrapper> selected,
             Predicate<StoreEntryWrapper> entryFilter,
             ObservableValue<String> filterString,
@@ -160,41 +179,22 @@ public class StoreSection {
                     e, DerivedObservableList.arrayList(true), DerivedObservableList.arrayList(true), depth);
         }
 
-        var allChildren = all.filtered(
-                other -> {
-                    // Legacy implementation that does not use children caches. Use for testing
-                    //                                if (true) return DataStorage.get()
-                    //                                        .getDefaultDisplayParent(other.getEntry())
-                    //                                        .map(found -> found.equals(e.getEntry()))
-                    //                                        .orElse(false);
-
-                    // is children. This check is fast as the children are cached in the storage
-                    if (DataStorage.get() == null
-                            || !DataStorage.get().getStoreChildren(e.getEntry()).contains(other.getEntry())) {
-                        return false;
-                    }
-
-                    return true;
-                },
-                e.getPersistentState(),
-                e.getCache(),
-                visibilityObservable,
-                updateObservable);
+        var allChildren = index.getChildren(e.getEntry());
         var l = new ArrayList<>(parents);
         l.add(e);
         var cached = allChildren.mapped(c -> create(
                 l,
                 c,
                 depth + 1,
-                all,
+                index,
                 selected,
                 entryFilter,
                 filterString,
                 category,
                 visibilityObservable,
                 updateObservable));
-        var ordered = sorted(cached, category, updateObservable);
-        var filtered = ordered.filtered(
+        var ordered = sorted(cached, category, filterString, updateObservable);
+        var filtered = ordered.filteredIncremental(
                 section -> {
                     var isBatchSelected = selected.contains(section.getWrapper());
 
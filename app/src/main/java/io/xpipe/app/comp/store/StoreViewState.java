@@ -9,10 +9,11 @@ import io.xpipe.app.storage.DataStoreCategory;
 import io.xpipe.app.storage.DataStoreEntry;
 import io.xpipe.app.storage.StorageListener;
 import io.xpipe.app.util.DerivedObservableList;
-import io.xpipe.app.util.PlatformThread;
+import io.xpipe.app.util.PlatformUpdateScheduler;
 
 import javafx.application.Platform;
 import javafx.beans.property.*;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 
@@ -25,6 +26,10 @@ public class StoreViewState {
 
     private static StoreViewState INSTANCE;
     private final StringProperty filter = new SimpleStringProperty();
+    private final StringProperty effectiveFilter = new SimpleStringProperty();
+
+    @Getter
+    private final StoreSearchIndex searchIndex = new StoreSearchIndex();
 
     @Getter
     private final DerivedObservableList<StoreEntryWrapper> allEntries =
@@ -153,7 +158,7 @@ public class StoreViewState {
                     allEntries,
                     batchModeSelectionSet,
                     storeEntryWrapper -> true,
-                    filter,
+                    effectiveFilter,
                     activeCategory,
                     entriesListVisibilityObservable,
                     entriesListUpdateObservable);
@@ -167,6 +172,17 @@ public class StoreViewState {
     private void initFilterListener() {
         var all = getAllConnectionsCategory();
         filter.addListener((observable, oldValue, newValue) -> {
+            searchIndex.query(newValue, published -> {
+                // The result might have changed for the same filter, e.g. when entries have been added
+                if (Objects.equals(effectiveFilter.getValue(), published)) {
+                    categories.getList().forEach(e -> e.update());
+                    triggerStoreListUpdate();
+                } else {
+                    effectiveFilter.setValue(published);
+                }
+            });
+        });
+        effectiveFilter.addListener((observable, oldValue, newValue) -> {
             categories.getList().forEach(e -> e.update());
             var matchingCats = categories.getList().stream()
                     .filter(storeCategoryWrapper ->
@@ -211,6 +227,7 @@ public class StoreViewState {
                 .setAll(FXCollections.observableArrayList(DataStorage.get().getStoreEntries().stream()
                         .map(StoreEntryWrapper::new)
                         .toList()));
+        searchIndex.rebuild();
         categories
                 .getList()
                 .setAll(FXCollections.observableArrayList(DataStorage.get().getStoreCategories().stream()
@@ -242,13 +259,13 @@ public class StoreViewState {
     }
 
     public void triggerStoreListVisibilityUpdate() {
-        PlatformThread.runLaterIfNeeded(() -> {
+        PlatformUpdateScheduler.markDirty(entriesListVisibilityObservable, () -> {
             entriesListVisibilityObservable.set(entriesListVisibilityObservable.get() + 1);
         });
     }
 
     public void triggerStoreListUpdate() {
-        PlatformThread.runLaterIfNeeded(() -> {
+        PlatformUpdateScheduler.markDirty(entriesListUpdateObservable, () -> {
             entriesListUpdateObservable.set(entriesListUpdateObservable.get() + 1);
         });
     }
@@ -271,14 +288,16 @@ public class StoreViewState {
 
             @Override
             public void onStoreListUpdate() {
-                Platform.runLater(() -> {
+                searchIndex.rebuild();
+                PlatformUpdateScheduler.submit(() -> {
                     triggerStoreListUpdate();
                 });
             }
 
             @Override
             public void onStoreAdd(DataStoreEntry... entry) {
-                Platform.runLater(() -> {
+                searchIndex.add(entry);
+                PlatformUpdateScheduler.submit(() -> {
                     var l = Arrays.stream(entry)
                             .map(StoreEntryWrapper::new)
                             .peek(storeEntryWrapper -> storeEntryWrapper.update())
@@ -293,15 +312,15 @@ public class StoreViewState {
                         allEntries.getList().addAll(l);
                     }
                     synchronized (this) {
+                        var used = allEntries.getList().stream()
+                                .map(storeEntryWrapper -> storeEntryWrapper.getEntry().getCategoryUuid())
+                                .collect(Collectors.toSet());
+                        // Categories are only updated once for all entries added in this batch
                         categories.getList().stream()
-                                .filter(storeCategoryWrapper -> allEntries.getList().stream()
-                                        .anyMatch(storeEntryWrapper -> storeEntryWrapper
-                                                .getEntry()
-                                                .getCategoryUuid()
-                                                .equals(storeCategoryWrapper
-                                                        .getCategory()
-                                                        .getUuid())))
-                                .forEach(storeCategoryWrapper -> storeCategoryWrapper.update());
+                                .filter(storeCategoryWrapper -> used.contains(
+                                        storeCategoryWrapper.getCategory().getUuid()))
+                                .forEach(storeCategoryWrapper -> PlatformUpdateScheduler.markDirty(
+                                        storeCategoryWrapper, storeCategoryWrapper::update));
                     }
                     l.forEach(storeEntryWrapper -> storeEntryWrapper.update());
                 });
@@ -309,6 +328,7 @@ public class StoreViewState {
 
             @Override
             public void onStoreRemove(DataStoreEntry... entry) {
+                searchIndex.remove(entry);
                 var a = Arrays.stream(entry).collect(Collectors.toSet());
                 List<StoreEntryWrapper> l;
                 synchronized (this) {
@@ -328,7 +348,7 @@ public class StoreViewState {
                                                     .getUuid())))
                             .toList();
                 }
-                Platform.runLater(() -> {
+                PlatformUpdateScheduler.submit(() -> {
                     // Don't update anything if we have already reset
                     if (INSTANCE == null) {
                         return;
@@ -344,7 +364,7 @@ public class StoreViewState {
             @Override
             public void onCategoryAdd(DataStoreCategory category) {
                 var l = new StoreCategoryWrapper(category);
-                Platform.runLater(() -> {
+                PlatformUpdateScheduler.submit(() -> {
                     // Don't update anything if we have already reset
                     if (INSTANCE == null) {
                         return;
@@ -371,7 +391,7 @@ public class StoreViewState {
                     return;
                 }
 
-                Platform.runLater(() -> {
+                PlatformUpdateScheduler.submit(() -> {
                     // Don't update anything if we have already reset
                     if (INSTANCE == null) {
                         return;
@@ -389,7 +409,7 @@ public class StoreViewState {
 
             @Override
             public void onEntryCategoryChange(DataStoreCategory from, DataStoreCategory to) {
-                Platform.runLater(() -> {
+                PlatformUpdateScheduler.submit(() -> {
                     synchronized (this) {
                         categories.getList().forEach(storeCategoryWrapper -> storeCategoryWrapper.update());
                     }
@@ -523,4 +543,12 @@ public class StoreViewState {
     public Property<String> getFilterString() {
         return filter;
     }
+
+    /**
+     * The filter for which the search results have last been published.
+     * This lags behind the filter string while the user is still typing.
+     */
+    public ObservableValue<String> getEffectiveFilterString() {
+        return effectiveFilter;
+    }
 }
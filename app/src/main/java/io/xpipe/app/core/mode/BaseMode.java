@@ -176,6 +176,7 @@ public class BaseMode extends OperationMode {
         SshLocalBridge.reset();
         BrowserFullSessionModel.DEFAULT.reset();
         LocalShell.reset(false);
+        ShellCapabilityCache.save();
         BrowserLocalFileSystem.reset();
         ProcessControlProvider.get().reset();
         AppPrefs.reset();
@@ -191,6 +192,9 @@ public class BaseMode extends OperationMode {
         AppDataLock.unlock();
         BlobManager.reset();
         FileBridge.reset();
+        ThreadHelper.getExecutors().forEach(executor -> TrackEvent.debug("Executor statistics: " + executor));
+        TrackEvent.debug("Platform update statistics: " + PlatformUpdateScheduler.getStatistics());
+        ThreadHelper.reset();
         GlobalTimer.reset();
         TrackEvent.info("Base mode shutdown finished");
     }
@@ -15,6 +15,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 public interface ActionProvider {
@@ -214,16 +215,18 @@ public interface ActionProvider {
         default Action createAction(List<DataStoreEntryRef<T>> stores) {
             var individual = stores.stream()
                     .map(ref -> {
-                        return createAction(ref);
+                        var action = createAction(ref);
+                        return action != null ? Map.entry(ref, action) : null;
                     })
-                    .filter(action -> action != null)
+                    .filter(entry -> entry != null)
                     .toList();
             return new Action() {
                 @Override
                 public void execute() throws Exception {
-                    for (Action action : individual) {
-                        action.execute();
-                    }
+                    BatchActionExecutor.run(individual, entry -> entry.getKey().get(), entry -> {
+                        entry.getValue().execute();
+                        return null;
+                    });
                 }
             };
         }
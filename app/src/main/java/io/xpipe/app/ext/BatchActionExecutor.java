@@ -0,0 +1,143 @@
+package io.xpipe.app.ext;
+
+import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.issue.TrackEvent;
+import io.xpipe.app.storage.DataStorage;
+import io.xpipe.app.storage.DataStoreEntry;
+import io.xpipe.app.util.ThreadHelper;
+import io.xpipe.core.store.NetworkTunnelStore;
+import io.xpipe.core.util.FailableFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs a task for many entries of a batch selection at the same time.
+ * The overall parallelism is limited, and tasks for entries that are reached through the same gateway or host
+ * system are limited further through the per-connection limit of the io executor, so a jump host isn't flooded with
+ * new connections. Entries are shown as busy while their task runs. Failures of single entries don't
+ * stop the others and are reported together at the end.
+ */
+public class BatchActionExecutor {
+
+    private static final String PARALLELISM_PROP = "io.xpipe.app.batchParallelism";
+    private static final int DEFAULT_PARALLELISM = 16;
+
+    private static int getParallelism() {
+        return Math.max(1, Integer.getInteger(PARALLELISM_PROP, DEFAULT_PARALLELISM));
+    }
+
+    /**
+     * Runs the task for all targets and returns the results in the same order.
+     * The result of a failed target is null. If all targets fail, the first failure is thrown.
+     */
+    public static <T, R> List<R> run(
+            List<T> targets, Function<T, DataStoreEntry> entryFunction, FailableFunction<T, R, Exception> task)
+            throws Exception {
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+
+        var results = Collections.synchronizedList(new ArrayList<R>(Collections.nCopies(targets.size(), null)));
+        var failures = Collections.synchronizedMap(new LinkedHashMap<Integer, Exception>());
+        var limit = new Semaphore(getParallelism());
+        var finished = new AtomicInteger();
+        var futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < targets.size(); i++) {
+            var index = i;
+            var target = targets.get(i);
+            var entry = entryFunction.apply(target);
+            futures.add(ThreadHelper.io().submit(getThrottleKey(entry), () -> {
+                limit.acquireUninterruptibly();
+                if (entry != null) {
+                    entry.incrementBusyCounter();
+                }
+                try {
+                    results.set(index, task.apply(target));
+                } catch (Exception ex) {
+                    failures.put(index, ex);
+                } finally {
+                    if (entry != null) {
+                        entry.decrementBusyCounter();
+                    }
+                    limit.release();
+                    TrackEvent.withDebug("Batch action progress")
+                            .tag("entry", entry != null ? entry.getName() : null)
+                            .tag("finished", finished.incrementAndGet())
+                            .tag("total", targets.size())
+                            .handle();
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ignored) {
+                // Failures are already collected
+            }
+        }
+
+        if (failures.isEmpty()) {
+            return results;
+        }
+
+        var first = failures.values().iterator().next();
+        if (failures.size() == targets.size()) {
+            failures.values().stream().skip(1).forEach(first::addSuppressed);
+            throw first;
+        }
+
+        var names = failures.keySet().stream()
+                .map(i -> {
+                    var entry = entryFunction.apply(targets.get(i));
+                    return entry != null ? entry.getName() : "?";
+                })
+                .toList();
+        var ex = new Exception(failures.size() + " of " + targets.size() + " actions failed: "
+                + String.join(", ", names));
+        failures.values().forEach(ex::addSuppressed);
+        ErrorEvent.fromThrowable(ex).handle();
+        return results;
+    }
+
+    private static Object getThrottleKey(DataStoreEntry entry) {
+        if (entry == null) {
+            return null;
+        }
+
+        if (DataStorage.get() == null) {
+            return entry;
+        }
+
+        // Connections that go through a gateway share it
+        if (entry.getStore() instanceof NetworkTunnelStore t && t.getNetworkParent() != null) {
+            var gateway = DataStorage.get()
+                    .getStoreEntryIfPresent(t.getNetworkParent(), false)
+                    .orElse(null);
+            if (isRemoteHost(gateway)) {
+                return gateway;
+            }
+        }
+
+        // Systems that are reached through their parent system, e.g. containers, share the parent
+        // Other parents like groups don't connect to anything, so entries in them are not limited together
+        var parent = DataStorage.get().getDefaultDisplayParent(entry).orElse(null);
+        if (isRemoteHost(parent)) {
+            return parent;
+        }
+
+        return entry;
+    }
+
+    private static boolean isRemoteHost(DataStoreEntry entry) {
+        return entry != null && entry.getStore() instanceof ShellStore && !(entry.getStore() instanceof LocalStore);
+    }
+}
@@ -1,17 +1,27 @@
 package io.xpipe.app.ext;
 
+import io.xpipe.core.process.CommandBuilder;
+import io.xpipe.core.process.CommandControl;
 import io.xpipe.core.process.ShellControl;
+import io.xpipe.core.process.StubShellControl;
+import io.xpipe.core.process.WrapperCommandControl;
 import io.xpipe.core.store.Session;
 import io.xpipe.core.store.SessionListener;
 import io.xpipe.core.util.FailableSupplier;
 
 import lombok.Getter;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Getter
 public class ShellSession extends Session {
 
     private final FailableSupplier<ShellControl> supplier;
     private final ShellControl shellControl;
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile long lastVerified;
 
     public ShellSession(SessionListener listener, FailableSupplier<ShellControl> supplier) throws Exception {
         super(listener);
@@ -44,6 +54,7 @@ public class ShellSession extends Session {
             listener.onStateChange(false);
         });
         pc.onInit(shellControl -> {
+            markVerified();
             listener.onStateChange(true);
         });
         pc.onKill(() -> {
@@ -59,6 +70,39 @@ public class ShellSession extends Session {
         return pc;
     }
 
+    /**
+     * Records that the session has just been shown to be working.
+     */
+    public void markVerified() {
+        lastVerified = System.nanoTime();
+    }
+
+    /**
+     * Returns a control for callers of this session. Every command that completes successfully over it
+     * counts as successful I/O, so a session that is in active use doesn't have to be probed.
+     */
+    public ShellControl createUsageControl() {
+        return new StubShellControl(shellControl) {
+            @Override
+            public CommandControl command(CommandBuilder builder) {
+                return new VerifyingCommandControl(super.command(builder));
+            }
+        };
+    }
+
+    public Duration getLastVerifiedAge() {
+        var last = lastVerified;
+        return last != 0 ? Duration.ofNanos(System.nanoTime() - last) : Duration.ofNanos(Long.MAX_VALUE);
+    }
+
+    boolean startProbe() {
+        return probing.compareAndSet(false, true);
+    }
+
+    void finishProbe() {
+        probing.set(false);
+    }
+
     public boolean isRunning() {
         return shellControl.isRunning(true);
     }
@@ -66,4 +110,54 @@ public class ShellSession extends Session {
     public void stop() throws Exception {
         shellControl.shutdown();
     }
+
+    private class VerifyingCommandControl extends WrapperCommandControl {
+
+        private VerifyingCommandControl(CommandControl command) {
+            super(command);
+        }
+
+        @Override
+        public boolean waitFor() {
+            var r = super.waitFor();
+            if (r) {
+                markVerified();
+            }
+            return r;
+        }
+
+        @Override
+        public String[] readStdoutAndStderr() throws Exception {
+            var r = super.readStdoutAndStderr();
+            markVerified();
+            return r;
+        }
+
+        @Override
+        public void discardOrThrow() throws Exception {
+            super.discardOrThrow();
+            markVerified();
+        }
+
+        @Override
+        public byte[] readRawBytesOrThrow() throws Exception {
+            var r = super.readRawBytesOrThrow();
+            markVerified();
+            return r;
+        }
+
+        @Override
+        public String readStdoutOrThrow() throws Exception {
+            var r = super.readStdoutOrThrow();
+            markVerified();
+            return r;
+        }
+
+        @Override
+        public Optional<String> readStdoutIfPossible() throws Exception {
+            var r = super.readStdoutIfPossible();
+            markVerified();
+            return r;
+        }
+    }
 }
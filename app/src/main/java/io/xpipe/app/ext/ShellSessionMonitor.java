@@ -0,0 +1,115 @@
+package io.xpipe.app.ext;
+
+import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.issue.TrackEvent;
+import io.xpipe.app.util.AppExecutor;
+import io.xpipe.app.util.GlobalTimer;
+import io.xpipe.app.util.ThreadHelper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of whether cached shell sessions are still alive so that callers don't have to
+ * send a probe command before every use. A session that has been verified recently, either by a probe or by
+ * a command that completed successfully over it, is handed out directly.
+ * Idle sessions are probed in the background at a low rate, and sessions whose streams have been closed
+ * are stopped as soon as that is noticed.
+ */
+public class ShellSessionMonitor {
+
+    private static final Duration FRESHNESS =
+            Duration.ofSeconds(Integer.getInteger("io.xpipe.app.sessionFreshnessSeconds", 10));
+    private static final Duration CHECK_INTERVAL = Duration.ofSeconds(15);
+    private static final Duration KEEPALIVE_INTERVAL = Duration.ofMinutes(2);
+
+    private static final Map<ShellSession, ShellStore> sessions = new ConcurrentHashMap<>();
+    // The timer executor the check has been scheduled on, a reset timer requires scheduling it again
+    private static AppExecutor startedOn;
+
+    static void register(ShellStore store, ShellSession session) {
+        sessions.put(session, store);
+        startIfNeeded();
+    }
+
+    public static boolean isFresh(ShellSession session) {
+        return session.getLastVerifiedAge().compareTo(FRESHNESS) < 0;
+    }
+
+    /**
+     * Sends a probe command over the session. If it fails, the session is stopped.
+     */
+    public static boolean probe(ShellStore store, ShellSession session) {
+        try {
+            session.getShellControl().command(" echo xpipetest").execute();
+            session.markVerified();
+            return true;
+        } catch (Exception e) {
+            ErrorEvent.fromThrowable(e).expected().omit().handle();
+            stop(store, session);
+            return false;
+        }
+    }
+
+    private static synchronized void startIfNeeded() {
+        var executor = GlobalTimer.getExecutor();
+        if (executor == null || executor == startedOn) {
+            return;
+        }
+
+        startedOn = executor;
+        GlobalTimer.scheduleUntil(CHECK_INTERVAL, () -> {
+            check();
+            return false;
+        });
+    }
+
+    private static void check() {
+        for (var e : sessions.entrySet()) {
+            var session = e.getKey();
+            var store = e.getValue();
+            if (store.getSession() != session) {
+                sessions.remove(session);
+                continue;
+            }
+
+            // A closed stream means that the shell is gone, no need to send anything
+            if (session.getShellControl().isAnyStreamClosed()) {
+                TrackEvent.withDebug("Shell session streams have been closed")
+                        .tag("store", store.getClass().getSimpleName())
+                        .handle();
+                sessions.remove(session);
+                ThreadHelper.runAsync(() -> stop(store, session));
+                continue;
+            }
+
+            if (session.getLastVerifiedAge().compareTo(KEEPALIVE_INTERVAL) < 0 || !session.startProbe()) {
+                continue;
+            }
+
+            ThreadHelper.runAsyncLimited(store, () -> {
+                try {
+                    if (store.getSession() == session) {
+                        probe(store, session);
+                    }
+                } finally {
+                    session.finishProbe();
+                }
+            });
+        }
+    }
+
+    private static void stop(ShellStore store, ShellSession session) {
+        // The session might have already been replaced in the meantime
+        if (store.getSession() != session) {
+            return;
+        }
+
+        try {
+            store.stopSessionIfNeeded();
+        } catch (Exception se) {
+            ErrorEvent.fromThrowable(se).expected().omit().handle();
+        }
+    }
+}
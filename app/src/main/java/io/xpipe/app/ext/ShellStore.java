@@ -1,9 +1,7 @@
 package io.xpipe.app.ext;
 
 import io.xpipe.app.core.AppProperties;
-import io.xpipe.app.issue.ErrorEvent;
 import io.xpipe.core.process.ShellControl;
-import io.xpipe.core.process.StubShellControl;
 import io.xpipe.core.store.*;
 
 public interface ShellStore extends DataStore, FileSystemStore, ValidatableStore, SingletonSessionStore<ShellSession> {
@@ -17,16 +15,12 @@ public interface ShellStore extends DataStore, FileSystemStore, ValidatableStore
         var existingSession = getSession();
         if (existingSession != null) {
             existingSession.getShellControl().refreshRunningState();
-            if (!existingSession.isRunning()) {
+            if (!existingSession.isRunning() || existingSession.getShellControl().isAnyStreamClosed()) {
                 stopSessionIfNeeded();
-            } else {
-                try {
-                    existingSession.getShellControl().command(" echo xpipetest").execute();
-                    return new StubShellControl(existingSession.getShellControl());
-                } catch (Exception e) {
-                    ErrorEvent.fromThrowable(e).expected().omit().handle();
-                    stopSessionIfNeeded();
-                }
+            } else if (ShellSessionMonitor.isFresh(existingSession)
+                    || ShellSessionMonitor.probe(this, existingSession)) {
+                // Only send a probe if the session hasn't been verified recently
+                return existingSession.createUsageControl();
             }
         }
 
@@ -39,7 +33,7 @@ public interface ShellStore extends DataStore, FileSystemStore, ValidatableStore
             return standaloneControl().start();
         }
 
-        return new StubShellControl(session.getShellControl());
+        return session.createUsageControl();
     }
 
     default boolean checkSessionAlive() {
@@ -48,25 +42,20 @@ public interface ShellStore extends DataStore, FileSystemStore, ValidatableStore
             return false;
         }
 
-        try {
-            session.getShellControl().command(" echo xpipetest").execute();
+        if (ShellSessionMonitor.isFresh(session) && !session.getShellControl().isAnyStreamClosed()) {
             return true;
-        } catch (Exception e) {
-            ErrorEvent.fromThrowable(e).expected().omit().handle();
-            try {
-                stopSessionIfNeeded();
-            } catch (Exception se) {
-                ErrorEvent.fromThrowable(se).expected().omit().handle();
-            }
-            return false;
         }
+
+        return ShellSessionMonitor.probe(this, session);
     }
 
     @Override
     default ShellSession newSession() throws Exception {
         var func = shellFunction();
         var c = func.control();
-        return new ShellSession(this, () -> c);
+        var session = new ShellSession(this, () -> c);
+        ShellSessionMonitor.register(this, session);
+        return session;
     }
 
     @Override
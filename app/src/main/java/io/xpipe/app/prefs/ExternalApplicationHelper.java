@@ -50,7 +50,8 @@ public class ExternalApplicationHelper {
     }
 
     public static void startAsync(CommandBuilder b) throws Exception {
-        try (var sc = LocalShell.getShell().start()) {
+        try (var lease = LocalShell.lease()) {
+            var sc = lease.getShellControl();
             var cmd = sc.getShellDialect().launchAsnyc(b);
             TrackEvent.withDebug("Executing local application")
                     .tag("command", b.buildFull(sc))
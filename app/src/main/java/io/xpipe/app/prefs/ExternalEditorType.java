@@ -318,7 +318,8 @@ public interface ExternalEditorType extends PrefsChoiceValue {
 
         @Override
         public void launch(Path file) throws Exception {
-            try (var sc = LocalShell.getShell().start()) {
+            try (var lease = LocalShell.lease()) {
+                var sc = lease.getShellControl();
                 sc.executeSimpleCommand(CommandBuilder.of()
                         .add("open", "-a")
                         .addQuoted(applicationName)
@@ -339,7 +340,10 @@ public interface ExternalEditorType extends PrefsChoiceValue {
             if (explicitlyAsync) {
                 ExternalApplicationHelper.startAsync(builder);
             } else {
-                LocalShell.getShell().executeSimpleCommand(builder);
+                // This blocks until the editor is closed, so don't occupy the shared shell
+                try (var lease = LocalShell.lease()) {
+                    lease.getShellControl().executeSimpleCommand(builder);
+                }
             }
         }
     }
@@ -377,7 +381,10 @@ public interface ExternalEditorType extends PrefsChoiceValue {
             if (detach) {
                 ExternalApplicationHelper.startAsync(builder);
             } else {
-                LocalShell.getShell().executeSimpleCommand(builder);
+                // This blocks until the editor is closed, so don't occupy the shared shell
+                try (var lease = LocalShell.lease()) {
+                    lease.getShellControl().executeSimpleCommand(builder);
+                }
             }
         }
 
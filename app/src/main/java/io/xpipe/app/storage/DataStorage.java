@@ -24,7 +24,6 @@ import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.crypto.SecretKey;
 
@@ -62,6 +61,13 @@ public abstract class DataStorage {
     private final List<StorageListener> listeners = new CopyOnWriteArrayList<>();
 
     private final Map<DataStoreEntry, DataStoreEntry> storeEntriesInProgress = new ConcurrentHashMap<>();
+    private final Map<DataStore, DataStoreEntry> storeEntriesInProgressByStore = new IdentityHashMap<>();
+
+    // Lookup indices, kept consistent with the entry and category collections
+    private final Map<UUID, DataStoreEntry> storeEntriesById = new ConcurrentHashMap<>();
+    private final Map<String, Set<DataStoreEntry>> storeEntriesByName = new HashMap<>();
+    private final Map<DataStoreEntry, String> storeEntryNames = new HashMap<>();
+    private final Map<UUID, DataStoreCategory> storeCategoriesById = new ConcurrentHashMap<>();
 
     @Getter
     protected boolean loaded;
@@ -73,6 +79,11 @@ public abstract class DataStorage {
     private final Map<DataStore, DataStoreEntry> identityStoreEntryMapCache = new IdentityHashMap<>();
     private final Map<DataStore, DataStoreEntry> storeEntryMapCache = new HashMap<>();
 
+    // Parent uuid -> children and child -> indexed parent uuid
+    // The parent is indexed by uuid, so children can be registered before their parent is added
+    private final Map<UUID, Set<DataStoreEntry>> storeChildrenIndex = new HashMap<>();
+    private final Map<DataStoreEntry, UUID> storeParentIndex = new HashMap<>();
+
     public DataStorage() {
         this.dir = getStorageDirectory();
         this.storeEntries = new ConcurrentHashMap<>();
@@ -156,7 +167,7 @@ public abstract class DataStorage {
         if (allConnections.isEmpty()) {
             var cat = DataStoreCategory.createNew(null, ALL_CONNECTIONS_CATEGORY_UUID, "All connections");
             cat.setDirectory(categoriesDir.resolve(ALL_CONNECTIONS_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         } else {
             allConnections.get().setParentCategory(null);
         }
@@ -165,7 +176,7 @@ public abstract class DataStorage {
         if (allScripts.isEmpty()) {
             var cat = DataStoreCategory.createNew(null, ALL_SCRIPTS_CATEGORY_UUID, "All scripts");
             cat.setDirectory(categoriesDir.resolve(ALL_SCRIPTS_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         } else {
             allScripts.get().setParentCategory(null);
         }
@@ -174,20 +185,20 @@ public abstract class DataStorage {
             var cat =
                     DataStoreCategory.createNew(ALL_SCRIPTS_CATEGORY_UUID, PREDEFINED_SCRIPTS_CATEGORY_UUID, "Samples");
             cat.setDirectory(categoriesDir.resolve(PREDEFINED_SCRIPTS_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         }
 
         if (getStoreCategoryIfPresent(CUSTOM_SCRIPTS_CATEGORY_UUID).isEmpty()) {
             var cat = DataStoreCategory.createNew(ALL_SCRIPTS_CATEGORY_UUID, CUSTOM_SCRIPTS_CATEGORY_UUID, "Custom");
             cat.setDirectory(categoriesDir.resolve(CUSTOM_SCRIPTS_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         }
 
         var allIdentities = getStoreCategoryIfPresent(ALL_IDENTITIES_CATEGORY_UUID);
         if (allIdentities.isEmpty()) {
             var cat = DataStoreCategory.createNew(null, ALL_IDENTITIES_CATEGORY_UUID, "All identities");
             cat.setDirectory(categoriesDir.resolve(ALL_IDENTITIES_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         } else {
             allIdentities.get().setParentCategory(null);
         }
@@ -197,7 +208,7 @@ public abstract class DataStorage {
             var cat =
                     DataStoreCategory.createNew(ALL_IDENTITIES_CATEGORY_UUID, LOCAL_IDENTITIES_CATEGORY_UUID, "Local");
             cat.setDirectory(categoriesDir.resolve(LOCAL_IDENTITIES_CATEGORY_UUID.toString()));
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         } else {
             localIdentities.get().setParentCategory(ALL_IDENTITIES_CATEGORY_UUID);
         }
@@ -209,14 +220,14 @@ public abstract class DataStorage {
                         ALL_IDENTITIES_CATEGORY_UUID, SYNCED_IDENTITIES_CATEGORY_UUID, "Synced");
                 cat.setDirectory(categoriesDir.resolve(SYNCED_IDENTITIES_CATEGORY_UUID.toString()));
                 cat.setConfig(cat.getConfig().withSync(true));
-                storeCategories.add(cat);
+                putStoreCategory(cat);
             } else {
                 sharedIdentities.get().setParentCategory(ALL_IDENTITIES_CATEGORY_UUID);
             }
         }
 
         if (getStoreCategoryIfPresent(DEFAULT_CATEGORY_UUID).isEmpty()) {
-            storeCategories.add(new DataStoreCategory(
+            putStoreCategory(new DataStoreCategory(
                     categoriesDir.resolve(DEFAULT_CATEGORY_UUID.toString()),
                     DEFAULT_CATEGORY_UUID,
                     "Default",
@@ -322,6 +333,120 @@ public abstract class DataStorage {
         storeEntries.keySet().forEach(dataStoreEntry -> {
             dataStoreEntry.refreshStore();
         });
+        // Stores might have changed, so their display parents as well
+        storeEntries.keySet().forEach(dataStoreEntry -> {
+            updateStoreParentIndex(dataStoreEntry);
+        });
+    }
+
+    protected void putStoreEntry(DataStoreEntry e) {
+        storeEntries.put(e, e);
+        storeEntriesById.put(e.getUuid(), e);
+        updateStoreNameIndex(e);
+        updateStoreParentIndex(e);
+    }
+
+    protected void removeStoreEntry(DataStoreEntry e) {
+        storeEntries.remove(e);
+        storeEntriesById.remove(e.getUuid(), e);
+        synchronized (storeEntriesByName) {
+            removeFromStoreNameIndex(e, storeEntryNames.remove(e));
+        }
+        synchronized (storeChildrenIndex) {
+            removeFromStoreChildrenIndex(e, storeParentIndex.remove(e));
+        }
+    }
+
+    protected void putStoreCategory(DataStoreCategory cat) {
+        storeCategories.add(cat);
+        storeCategoriesById.put(cat.getUuid(), cat);
+    }
+
+    protected void removeStoreCategory(DataStoreCategory cat) {
+        storeCategories.remove(cat);
+        storeCategoriesById.remove(cat.getUuid(), cat);
+    }
+
+    void updateStoreNameIndex(DataStoreEntry entry) {
+        if (!storeEntries.containsKey(entry) || entry.getName() == null) {
+            return;
+        }
+
+        var name = entry.getName().toLowerCase(Locale.ROOT);
+        synchronized (storeEntriesByName) {
+            var oldName = storeEntryNames.put(entry, name);
+            if (name.equals(oldName)) {
+                return;
+            }
+
+            removeFromStoreNameIndex(entry, oldName);
+            storeEntriesByName.computeIfAbsent(name, k -> new HashSet<>()).add(entry);
+        }
+    }
+
+    private void removeFromStoreNameIndex(DataStoreEntry entry, String name) {
+        if (name == null) {
+            return;
+        }
+
+        var entries = storeEntriesByName.get(name);
+        if (entries == null) {
+            return;
+        }
+
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+            storeEntriesByName.remove(name);
+        }
+    }
+
+    void updateStoreParentIndex(DataStoreEntry entry) {
+        if (!storeEntries.containsKey(entry)) {
+            return;
+        }
+
+        var parentId = getDisplayParentId(entry);
+        synchronized (storeChildrenIndex) {
+            var indexed = storeParentIndex.containsKey(entry);
+            var oldParentId = storeParentIndex.put(entry, parentId);
+            if (indexed && Objects.equals(oldParentId, parentId)) {
+                return;
+            }
+
+            removeFromStoreChildrenIndex(entry, oldParentId);
+            if (parentId != null) {
+                storeChildrenIndex.computeIfAbsent(parentId, k -> new HashSet<>()).add(entry);
+            }
+        }
+    }
+
+    private void removeFromStoreChildrenIndex(DataStoreEntry entry, UUID parentId) {
+        if (parentId == null) {
+            return;
+        }
+
+        var children = storeChildrenIndex.get(parentId);
+        if (children == null) {
+            return;
+        }
+
+        children.remove(entry);
+        if (children.isEmpty()) {
+            storeChildrenIndex.remove(parentId);
+        }
+    }
+
+    private UUID getDisplayParentId(DataStoreEntry entry) {
+        if (entry.getValidity() == DataStoreEntry.Validity.LOAD_FAILED) {
+            return null;
+        }
+
+        try {
+            var parent = entry.getProvider().getDisplayParent(entry);
+            return parent != null ? parent.getUuid() : null;
+        } catch (Exception ex) {
+            return null;
+        }
     }
 
     public void updateEntry(DataStoreEntry entry, DataStoreEntry newEntry) {
@@ -362,11 +487,7 @@ public abstract class DataStorage {
         entry.initializeEntry();
 
         if (!sameParent) {
-            if (oldParent.isPresent()) {
-                oldParent.get().setChildrenCache(null);
-            }
             if (newParent.isPresent()) {
-                newParent.get().setChildrenCache(null);
                 newParent.get().setExpanded(true);
             }
             var toAdd = Stream.concat(Stream.of(entry), children.stream()).toArray(DataStoreEntry[]::new);
@@ -634,15 +755,13 @@ public abstract class DataStorage {
 
         for (var td : toDelete) {
             td.finalizeEntry();
-            this.storeEntriesSet.remove(td);
+            removeStoreEntry(td);
             synchronized (identityStoreEntryMapCache) {
                 identityStoreEntryMapCache.remove(td.getStore());
             }
             synchronized (storeEntryMapCache) {
                 storeEntryMapCache.remove(td.getStore());
             }
-            var parent = getDefaultDisplayParent(td);
-            parent.ifPresent(p -> p.setChildrenCache(null));
         }
 
         this.listeners.forEach(l -> l.onStoreRemove(toDelete.toArray(DataStoreEntry[]::new)));
@@ -652,7 +771,7 @@ public abstract class DataStorage {
 
     public void addStoreCategory(@NonNull DataStoreCategory cat) {
         cat.setDirectory(getCategoriesDir().resolve(cat.getUuid().toString()));
-        this.storeCategories.add(cat);
+        putStoreCategory(cat);
         saveAsync();
 
         this.listeners.forEach(l -> l.onCategoryAdd(cat));
@@ -660,10 +779,18 @@ public abstract class DataStorage {
 
     public void addStoreEntryInProgress(@NonNull DataStoreEntry e) {
         this.storeEntriesInProgress.put(e, e);
+        if (e.getStore() != null) {
+            synchronized (storeEntriesInProgressByStore) {
+                storeEntriesInProgressByStore.put(e.getStore(), e);
+            }
+        }
     }
 
     public void removeStoreEntryInProgress(@NonNull DataStoreEntry e) {
         this.storeEntriesInProgress.remove(e);
+        synchronized (storeEntriesInProgressByStore) {
+            storeEntriesInProgressByStore.values().removeIf(entry -> entry.equals(e));
+        }
     }
 
     public DataStoreEntry addStoreEntryIfNotPresent(@NonNull DataStoreEntry e) {
@@ -693,15 +820,13 @@ public abstract class DataStorage {
         }
 
         e.setDirectory(getStoresDir().resolve(e.getUuid().toString()));
-        this.storeEntries.put(e, e);
-        displayParent.ifPresent(p -> {
-            p.setChildrenCache(null);
-        });
+        putStoreEntry(e);
         saveAsync();
 
         this.listeners.forEach(l -> l.onStoreAdd(e));
         e.initializeEntry();
         e.refreshStore();
+        updateStoreParentIndex(e);
         return e;
     }
 
@@ -732,13 +857,11 @@ public abstract class DataStorage {
             }
 
             e.setDirectory(getStoresDir().resolve(e.getUuid().toString()));
-            this.storeEntries.put(e, e);
-            displayParent.ifPresent(p -> {
-                p.setChildrenCache(null);
-            });
+            putStoreEntry(e);
         }
         for (DataStoreEntry e : toAdd) {
             e.refreshStore();
+            updateStoreParentIndex(e);
         }
         this.listeners.forEach(l -> l.onStoreAdd(toAdd.toArray(DataStoreEntry[]::new)));
         for (DataStoreEntry e : toAdd) {
@@ -768,14 +891,13 @@ public abstract class DataStorage {
 
     public void deleteStoreEntry(@NonNull DataStoreEntry store) {
         store.finalizeEntry();
-        this.storeEntries.remove(store);
+        removeStoreEntry(store);
         synchronized (identityStoreEntryMapCache) {
             identityStoreEntryMapCache.remove(store.getStore());
         }
         synchronized (storeEntryMapCache) {
             storeEntryMapCache.remove(store.getStore());
         }
-        getDefaultDisplayParent(store).ifPresent(p -> p.setChildrenCache(null));
         this.listeners.forEach(l -> l.onStoreRemove(store));
         refreshEntries();
         saveAsync();
@@ -808,7 +930,7 @@ public abstract class DataStorage {
             }
         });
 
-        storeCategories.remove(cat);
+        removeStoreCategory(cat);
         saveAsync();
         this.listeners.forEach(l -> l.onCategoryRemove(cat));
     }
@@ -921,6 +1043,24 @@ public abstract class DataStorage {
         }
     }
 
+    /**
+     * Returns the entry whose {@link #getStoreChildren(DataStoreEntry)} contain the given entry, if any.
+     */
+    public Optional<DataStoreEntry> getStoreChildParent(DataStoreEntry entry) {
+        if (!storeEntries.containsKey(entry) || entry.getValidity() == DataStoreEntry.Validity.LOAD_FAILED) {
+            return Optional.empty();
+        }
+
+        var parent = getDefaultDisplayParent(entry);
+        if (parent.isEmpty()
+                || parent.get().getValidity() == DataStoreEntry.Validity.LOAD_FAILED
+                || isParentLoop(parent.get())) {
+            return Optional.empty();
+        }
+
+        return parent;
+    }
+
     public Set<DataStoreEntry> getDeepStoreChildren(DataStoreEntry entry) {
         var set = new HashSet<DataStoreEntry>();
         getDeepStoreChildren(entry, set);
@@ -942,26 +1082,31 @@ public abstract class DataStorage {
             return Set.of();
         }
 
-        if (entry.getChildrenCache() != null) {
-            return entry.getChildrenCache();
+        if (!storeEntries.containsKey(entry)) {
+            return Set.of();
+        }
+
+        List<DataStoreEntry> indexed;
+        synchronized (storeChildrenIndex) {
+            var found = storeChildrenIndex.get(entry.getUuid());
+            if (found == null) {
+                return Set.of();
+            }
+            indexed = new ArrayList<>(found);
         }
 
-        var entries = getStoreEntries();
-        if (!entries.contains(entry)) {
+        if (isParentLoop(entry)) {
             return Set.of();
         }
 
-        var children = entries.stream()
-                .filter(other -> {
-                    if (other.getValidity() == DataStoreEntry.Validity.LOAD_FAILED) {
-                        return false;
-                    }
+        var children = new HashSet<DataStoreEntry>();
+        for (DataStoreEntry other : indexed) {
+            if (other.getValidity() == DataStoreEntry.Validity.LOAD_FAILED || !storeEntries.containsKey(other)) {
+                continue;
+            }
 
-                    var parent = getDefaultDisplayParent(other);
-                    return parent.isPresent() && parent.get().equals(entry) && !isParentLoop(entry);
-                })
-                .collect(Collectors.toSet());
-        entry.setChildrenCache(children);
+            children.add(other);
+        }
         return children;
     }
 
@@ -1010,9 +1155,10 @@ public abstract class DataStorage {
     }
 
     public Optional<DataStoreEntry> getStoreEntryInProgressIfPresent(@NonNull DataStore store) {
-        return storeEntriesInProgress.keySet().stream()
-                .filter(n -> n.getStore() == store)
-                .findFirst();
+        synchronized (storeEntriesInProgressByStore) {
+            return Optional.ofNullable(storeEntriesInProgressByStore.get(store))
+                    .filter(n -> n.getStore() == store);
+        }
     }
 
     public Optional<DataStoreEntry> getStoreEntryIfPresent(@NonNull DataStore store, boolean identityOnly) {
@@ -1075,17 +1221,18 @@ public abstract class DataStorage {
             return Optional.empty();
         }
 
-        return storeCategories.stream()
-                .filter(n -> {
-                    return Objects.equals(n.getUuid(), uuid);
-                })
-                .findFirst();
+        return Optional.ofNullable(storeCategoriesById.get(uuid));
     }
 
     public Optional<DataStoreEntry> getStoreEntryIfPresent(@NonNull String name) {
-        return storeEntriesSet.stream()
-                .filter(n -> n.getName().equalsIgnoreCase(name))
-                .findFirst();
+        synchronized (storeEntriesByName) {
+            var found = storeEntriesByName.get(name.toLowerCase(Locale.ROOT));
+            if (found == null) {
+                return Optional.empty();
+            }
+
+            return found.stream().findFirst();
+        }
     }
 
     public String getStoreEntryDisplayName(DataStoreEntry entry) {
@@ -1117,7 +1264,11 @@ public abstract class DataStorage {
     }
 
     public Optional<DataStoreEntry> getStoreEntryIfPresent(UUID id) {
-        return storeEntriesSet.stream().filter(e -> e.getUuid().equals(id)).findAny();
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(storeEntriesById.get(id));
     }
 
     public Set<DataStoreEntry> getStoreEntries() {
@@ -0,0 +1,235 @@
+package io.xpipe.app.storage;
+
+import lombok.Value;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single file containing the raw file contents of all store entry directories, indexed by entry uuid.
+ * This is only a cache to avoid opening many small files on startup.
+ * The entry directories are always the source of truth, an entry is only read from the snapshot
+ * if the attributes of its files still match the ones recorded when writing it.
+ */
+public class DataStorageSnapshot {
+
+    static final List<String> ENTRY_FILES = List.of("entry.json", "state.json", "store.json", "notes.md", "notes.json");
+
+    private static final int MAGIC = 0x58505653;
+    private static final int VERSION = 2;
+    private static final int ATTRIBUTE_COUNT = ENTRY_FILES.size() * 2;
+    private static final int INDEX_ITEM_SIZE =
+            2 * Long.BYTES + ATTRIBUTE_COUNT * Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final Map<UUID, Item> index;
+
+    private DataStorageSnapshot(ByteBuffer buffer, Map<UUID, Item> index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    public static Optional<DataStorageSnapshot> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        // Read the file at once instead of mapping it
+        // A live mapping would lock the file on Windows and prevent us from replacing it later on
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {}
+            buffer.flip();
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return Optional.empty();
+            }
+
+            var count = buffer.getInt();
+            var index = new HashMap<UUID, Item>(count);
+            for (int i = 0; i < count; i++) {
+                var uuid = new UUID(buffer.getLong(), buffer.getLong());
+                var attributes = new long[ATTRIBUTE_COUNT];
+                for (int j = 0; j < ATTRIBUTE_COUNT; j++) {
+                    attributes[j] = buffer.getLong();
+                }
+                var offset = buffer.getLong();
+                var length = buffer.getInt();
+                if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+                    return Optional.empty();
+                }
+                index.put(uuid, new Item(attributes, (int) offset, length));
+            }
+            return Optional.of(new DataStorageSnapshot(buffer.asReadOnlyBuffer(), index));
+        } catch (BufferUnderflowException ex) {
+            // Truncated file, e.g. from a crash while writing
+            return Optional.empty();
+        }
+    }
+
+    public static void write(Path file, DataStorageSnapshot previous, Collection<DataStoreEntry> entries)
+            throws IOException {
+        var data = new ByteArrayOutputStream();
+        var dataOut = new DataOutputStream(data);
+        var items = new LinkedHashMap<UUID, Item>();
+        for (DataStoreEntry entry : entries) {
+            var dir = entry.getDirectory();
+            if (dir == null || !Files.isDirectory(dir)) {
+                continue;
+            }
+
+            var attributes = readAttributes(dir);
+            var files = previous != null ? previous.getEntryFiles(entry.getUuid(), attributes) : null;
+            if (files == null) {
+                files = readEntryFiles(dir);
+            }
+
+            var offset = data.size();
+            for (String name : ENTRY_FILES) {
+                var content = files.get(name);
+                if (content == null) {
+                    dataOut.writeInt(-1);
+                } else {
+                    dataOut.writeInt(content.length);
+                    dataOut.write(content);
+                }
+            }
+            items.put(entry.getUuid(), new Item(attributes, offset, data.size() - offset));
+        }
+        dataOut.flush();
+
+        var headerSize = 3 * Integer.BYTES + items.size() * INDEX_ITEM_SIZE;
+        var header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(items.size());
+        items.forEach((uuid, item) -> {
+            header.putLong(uuid.getMostSignificantBits());
+            header.putLong(uuid.getLeastSignificantBits());
+            for (long attribute : item.getAttributes()) {
+                header.putLong(attribute);
+            }
+            header.putLong((long) headerSize + item.getOffset());
+            header.putInt(item.getLength());
+        });
+        header.flip();
+
+        FileUtils.forceMkdir(file.getParent().toFile());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            var body = ByteBuffer.wrap(data.toByteArray());
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static Map<String, byte[]> readEntryFiles(Path dir) throws IOException {
+        var map = new HashMap<String, byte[]>();
+        for (String name : ENTRY_FILES) {
+            var file = dir.resolve(name);
+            if (Files.exists(file)) {
+                map.put(name, Files.readAllBytes(file));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Returns the size and modification time of each entry file, or -1 for files that don't exist.
+     */
+    static long[] readAttributes(Path dir) throws IOException {
+        var values = new long[ATTRIBUTE_COUNT];
+        for (int i = 0; i < ENTRY_FILES.size(); i++) {
+            try {
+                var attributes = Files.readAttributes(dir.resolve(ENTRY_FILES.get(i)), BasicFileAttributes.class);
+                values[2 * i] = attributes.size();
+                values[2 * i + 1] = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            } catch (NoSuchFileException ignored) {
+                values[2 * i] = -1;
+                values[2 * i + 1] = -1;
+            }
+        }
+        return values;
+    }
+
+    public Map<String, byte[]> getEntryFiles(UUID uuid, Path dir) throws IOException {
+        if (!index.containsKey(uuid)) {
+            return null;
+        }
+
+        return getEntryFiles(uuid, readAttributes(dir));
+    }
+
+    private Map<String, byte[]> getEntryFiles(UUID uuid, long[] attributes) {
+        var item = index.get(uuid);
+        if (item == null || !Arrays.equals(item.getAttributes(), attributes)) {
+            return null;
+        }
+
+        // Slices are independent, so this can be called concurrently
+        var slice = buffer.slice(item.getOffset(), item.getLength());
+        var map = new HashMap<String, byte[]>();
+        try {
+            for (String name : ENTRY_FILES) {
+                var length = slice.getInt();
+                if (length < 0) {
+                    continue;
+                }
+
+                var content = new byte[length];
+                slice.get(content);
+                map.put(name, content);
+            }
+        } catch (BufferUnderflowException ex) {
+            return null;
+        }
+        return map;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Value
+    private static class Item {
+        long[] attributes;
+        int offset;
+        int length;
+    }
+}
@@ -210,7 +210,7 @@ public class DataStoreCategory extends StorageElement {
         var entryString = mapper.writeValueAsString(obj);
         var stateString = mapper.writeValueAsString(stateObj);
         FileUtils.forceMkdir(directory.toFile());
-        Files.writeString(directory.resolve("category.json"), entryString);
-        Files.writeString(directory.resolve("state.json"), stateString);
+        writeFileAtomically(directory.resolve("category.json"), entryString);
+        writeFileAtomically(directory.resolve("state.json"), stateString);
     }
 }
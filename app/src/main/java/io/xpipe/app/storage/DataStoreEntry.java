@@ -5,6 +5,7 @@ import io.xpipe.app.ext.DataStoreProviders;
 import io.xpipe.app.ext.NameableStore;
 import io.xpipe.app.ext.UserScopeStore;
 import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.app.util.ShellCapabilityCache;
 import io.xpipe.app.util.ThreadHelper;
 import io.xpipe.core.store.*;
 import io.xpipe.core.util.JacksonMapper;
@@ -20,6 +21,7 @@ import lombok.*;
 import lombok.experimental.NonFinal;
 import org.apache.commons.io.FileUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
@@ -58,10 +60,6 @@ public class DataStoreEntry extends StorageElement {
     @NonFinal
     JsonNode storePersistentStateNode;
 
-    @NonFinal
-    @Setter
-    Set<DataStoreEntry> childrenCache = null;
-
     @NonFinal
     String notes;
 
@@ -194,23 +192,27 @@ public class DataStoreEntry extends StorageElement {
     }
 
     public static Optional<DataStoreEntry> fromDirectory(Path dir) throws Exception {
+        return fromFiles(dir, DataStorageSnapshot.readEntryFiles(dir));
+    }
+
+    static Optional<DataStoreEntry> fromFiles(Path dir, Map<String, byte[]> files) throws Exception {
         ObjectMapper mapper = JacksonMapper.getDefault();
 
-        var entryFile = dir.resolve("entry.json");
-        var storeFile = dir.resolve("store.json");
-        var stateFile = dir.resolve("state.json");
-        var normalNotesFile = dir.resolve("notes.md");
-        var encryptedNotesFile = dir.resolve("notes.json");
-        if (!Files.exists(entryFile) || !Files.exists(storeFile)) {
+        var entryFile = files.get("entry.json");
+        var storeFile = files.get("store.json");
+        var stateFile = files.get("state.json");
+        var normalNotesFile = files.get("notes.md");
+        var encryptedNotesFile = files.get("notes.json");
+        if (entryFile == null || storeFile == null) {
             return Optional.empty();
         }
 
-        if (!Files.exists(stateFile)) {
+        if (stateFile == null) {
             stateFile = entryFile;
         }
 
-        var json = mapper.readTree(entryFile.toFile());
-        var stateJson = mapper.readTree(stateFile.toFile());
+        var json = mapper.readTree(entryFile);
+        var stateJson = mapper.readTree(stateFile);
         var uuid = UUID.fromString(json.required("uuid").textValue());
         var categoryUuid = Optional.ofNullable(json.get("categoryUuid"))
                 .map(jsonNode -> UUID.fromString(jsonNode.textValue()))
@@ -269,11 +271,11 @@ public class DataStoreEntry extends StorageElement {
         }
 
         String notes = null;
-        if (Files.exists(normalNotesFile)) {
-            notes = Files.readString(normalNotesFile);
+        if (normalNotesFile != null) {
+            notes = new String(normalNotesFile, StandardCharsets.UTF_8);
         }
-        if (Files.exists(encryptedNotesFile)) {
-            var node = DataStorageNode.readPossiblyEncryptedNode(mapper.readTree(encryptedNotesFile.toFile()));
+        if (encryptedNotesFile != null) {
+            var node = DataStorageNode.readPossiblyEncryptedNode(mapper.readTree(encryptedNotesFile));
             var mdNode = node.getContentNode().get("markdown");
             notes = mdNode != null ? mdNode.asText() : null;
         }
@@ -283,7 +285,7 @@ public class DataStoreEntry extends StorageElement {
 
         DataStorageNode node;
         try {
-            var fileNode = mapper.readTree(storeFile.toFile());
+            var fileNode = mapper.readTree(storeFile);
             node = DataStorageNode.readPossiblyEncryptedNode(fileNode);
         } catch (JacksonException ex) {
             ErrorEvent.fromThrowable(ex).omit().expected().handle();
@@ -310,6 +312,12 @@ public class DataStoreEntry extends StorageElement {
                 icon));
     }
 
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        DataStorage.get().updateStoreNameIndex(this);
+    }
+
     public void setExplicitOrder(Order uuid) {
         var changed = !Objects.equals(explicitOrder, uuid);
         this.explicitOrder = uuid;
@@ -468,9 +476,9 @@ public class DataStoreEntry extends StorageElement {
         var storeString = mapper.writeValueAsString(DataStorageNode.encryptNodeIfNeeded(storeNode));
 
         FileUtils.forceMkdir(directory.toFile());
-        Files.writeString(directory.resolve("state.json"), stateString);
-        Files.writeString(directory.resolve("entry.json"), entryString);
-        Files.writeString(directory.resolve("store.json"), storeString);
+        writeFileAtomically(directory.resolve("state.json"), stateString);
+        writeFileAtomically(directory.resolve("entry.json"), entryString);
+        writeFileAtomically(directory.resolve("store.json"), storeString);
 
         var encryptNotes = storeNode.isEncrypted();
         var normalNotesFile = directory.resolve("notes.md");
@@ -487,9 +495,9 @@ public class DataStoreEntry extends StorageElement {
             var storageNode = DataStorageNode.encryptNodeIfNeeded(new DataStorageNode(
                     notesNode, storeNode.isPerUser(), storeNode.isReadableForUser(), storeNode.isEncrypted()));
             var string = mapper.writeValueAsString(storageNode);
-            Files.writeString(encryptedNotesFile, string);
+            writeFileAtomically(encryptedNotesFile, string);
         } else if (notes != null) {
-            Files.writeString(normalNotesFile, notes);
+            writeFileAtomically(normalNotesFile, notes);
         }
         lastWrittenNotes = notes;
     }
@@ -507,18 +515,22 @@ public class DataStoreEntry extends StorageElement {
     }
 
     public void applyChanges(DataStoreEntry e) {
+        if (!Objects.equals(store, e.store)) {
+            ShellCapabilityCache.invalidate(uuid);
+        }
         name = e.getName();
         storeNode = e.storeNode;
         store = e.store;
         validity = e.validity;
         provider = e.provider;
-        childrenCache = null;
         storeCache.clear();
         storeCache.putAll(e.storeCache);
         validity = store == null ? Validity.LOAD_FAILED : store.isComplete() ? Validity.COMPLETE : Validity.INCOMPLETE;
         storePersistentState = e.storePersistentState;
         storePersistentStateNode = e.storePersistentStateNode;
         icon = e.icon;
+        DataStorage.get().updateStoreNameIndex(this);
+        DataStorage.get().updateStoreParentIndex(this);
         notifyUpdate(false, true);
     }
 
@@ -535,10 +547,11 @@ public class DataStoreEntry extends StorageElement {
         this.store = store;
         this.storeNode = DataStorageNode.ofNewStore(store);
         this.provider = DataStoreProviders.byStore(store);
+        ShellCapabilityCache.invalidate(uuid);
         if (updateTime) {
             lastModified = Instant.now();
         }
-        childrenCache = null;
+        DataStorage.get().updateStoreParentIndex(this);
         dirty = true;
         notifyUpdate(false, updateTime);
     }
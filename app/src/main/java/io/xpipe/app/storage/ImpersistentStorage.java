@@ -18,15 +18,15 @@ public class ImpersistentStorage extends DataStorage {
     public void load() {
         {
             var cat = DataStoreCategory.createNew(null, ALL_CONNECTIONS_CATEGORY_UUID, "All connections");
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         }
         {
             var cat = DataStoreCategory.createNew(null, ALL_SCRIPTS_CATEGORY_UUID, "All scripts");
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         }
         {
             var cat = DataStoreCategory.createNew(null, ALL_IDENTITIES_CATEGORY_UUID, "All identities");
-            storeCategories.add(cat);
+            putStoreCategory(cat);
         }
         {
             var cat = new DataStoreCategory(
@@ -40,13 +40,13 @@ public class ImpersistentStorage extends DataStorage {
                     StoreSortMode.getDefault(),
                     true,
                     DataStoreCategoryConfig.empty());
-            storeCategories.add(cat);
+            putStoreCategory(cat);
             selectedCategory = getStoreCategoryIfPresent(DEFAULT_CATEGORY_UUID).orElseThrow();
         }
 
         var e = DataStoreEntry.createNew(
                 LOCAL_ID, DataStorage.DEFAULT_CATEGORY_UUID, "Local Machine", new LocalStore());
-        storeEntries.put(e, e);
+        putStoreEntry(e);
         e.validate();
     }
 
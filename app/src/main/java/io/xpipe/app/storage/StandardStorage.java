@@ -1,31 +1,45 @@
 package io.xpipe.app.storage;
 
+import io.xpipe.app.core.AppCache;
 import io.xpipe.app.ext.DataStorageExtensionProvider;
 import io.xpipe.app.ext.LocalStore;
 import io.xpipe.app.issue.ErrorEvent;
 import io.xpipe.app.issue.TrackEvent;
 import io.xpipe.app.prefs.AppPrefs;
 import io.xpipe.app.util.EncryptionKey;
+import io.xpipe.app.util.GlobalTimer;
 import io.xpipe.app.util.ThreadHelper;
 import io.xpipe.core.process.OsType;
 
 import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.Value;
 import org.apache.commons.io.FileUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.crypto.SecretKey;
 
 public class StandardStorage extends DataStorage {
 
+    private static final String PARALLEL_LOAD_PROP = "io.xpipe.storage.parallelLoad";
+    private static final Duration SAVE_DEBOUNCE = Duration.ofMillis(500);
+    private static final String SNAPSHOT_PROP = "io.xpipe.storage.snapshot";
+
     private final List<Path> directoriesToKeep = new ArrayList<>();
 
     @Getter
@@ -40,6 +54,13 @@ public class StandardStorage extends DataStorage {
     private boolean disposed;
 
     private boolean saveQueued;
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final AtomicInteger saveRequests = new AtomicInteger();
+
+    @Getter
+    private volatile long lastSaveDurationMillis;
+    private DataStorageSnapshot snapshot;
+    private final AtomicInteger snapshotHits = new AtomicInteger();
     private final ReentrantLock busyIo = new ReentrantLock();
 
     StandardStorage() {
@@ -105,11 +126,15 @@ public class StandardStorage extends DataStorage {
                     .handle();
         }
 
+        var startTime = System.currentTimeMillis();
+        var categoriesTime = 0L;
+        var parseTime = 0L;
         try {
             var exception = new AtomicReference<Exception>();
             try (var cats = Files.list(categoriesDir)) {
                 cats.filter(Files::isDirectory).forEach(path -> {
                     try {
+                        StorageElement.deleteTemporaryFiles(path);
                         try (Stream<Path> list = Files.list(path)) {
                             if (list.findAny().isEmpty()) {
                                 return;
@@ -117,7 +142,7 @@ public class StandardStorage extends DataStorage {
                         }
 
                         var c = DataStoreCategory.fromDirectory(path);
-                        c.ifPresent(storeCategories::add);
+                        c.ifPresent(this::putStoreCategory);
                     } catch (IOException ex) {
                         // IO exceptions are not expected
                         exception.set(new IOException("Unable to load data from " + path + ". Is it corrupted?", ex));
@@ -137,31 +162,27 @@ public class StandardStorage extends DataStorage {
             setupBuiltinCategories();
             selectedCategory = getStoreCategoryIfPresent(DEFAULT_CATEGORY_UUID).orElseThrow();
 
-            try (var dirs = Files.list(storesDir)) {
-                dirs.filter(Files::isDirectory).forEach(path -> {
-                    try {
-                        try (Stream<Path> list = Files.list(path)) {
-                            if (list.findAny().isEmpty()) {
-                                return;
-                            }
-                        }
+            categoriesTime = System.currentTimeMillis() - startTime;
 
-                        var entry = DataStoreEntry.fromDirectory(path);
-                        if (entry.isEmpty()) {
-                            return;
-                        }
+            snapshot = readSnapshot();
 
-                        var foundCat = getStoreCategoryIfPresent(entry.get().getCategoryUuid());
-                        if (foundCat.isEmpty()) {
-                            entry.get().setCategoryUuid(null);
-                        }
-
-                        storeEntries.put(entry.get(), entry.get());
-                    } catch (IOException ex) {
+            try (var dirs = Files.list(storesDir)) {
+                var storeDirs = dirs.filter(Files::isDirectory).sorted().toList();
+                var parseStart = System.currentTimeMillis();
+                var results = loadEntryDirectories(storeDirs);
+                parseTime = System.currentTimeMillis() - parseStart;
+
+                // Merge in a fixed order, independent of which worker finished first
+                results.forEach(result -> {
+                    var path = result.getDirectory();
+                    if (result.getException() instanceof IOException ex) {
                         // IO exceptions are not expected
                         exception.set(new IOException("Unable to load data from " + path + ". Is it corrupted?", ex));
                         directoriesToKeep.add(path);
-                    } catch (Exception ex) {
+                        return;
+                    }
+
+                    if (result.getException() != null) {
                         // Data corruption and schema changes are expected
 
                         // We only keep invalid entries in developer mode as there's no point in keeping them in
@@ -170,8 +191,25 @@ public class StandardStorage extends DataStorage {
                             directoriesToKeep.add(path);
                         }
 
-                        ErrorEvent.fromThrowable(ex).expected().omit().build().handle();
+                        ErrorEvent.fromThrowable(result.getException())
+                                .expected()
+                                .omit()
+                                .build()
+                                .handle();
+                        return;
                     }
+
+                    var entry = result.getEntry();
+                    if (entry == null) {
+                        return;
+                    }
+
+                    var foundCat = getStoreCategoryIfPresent(entry.getCategoryUuid());
+                    if (foundCat.isEmpty()) {
+                        entry.setCategoryUuid(null);
+                    }
+
+                    putStoreEntry(entry);
                 });
 
                 // Show one exception
@@ -194,6 +232,9 @@ public class StandardStorage extends DataStorage {
             ErrorEvent.fromThrowable(ex).terminal(true).build().handle();
         }
 
+        var entriesTime = System.currentTimeMillis() - startTime - categoriesTime;
+        var initStart = System.currentTimeMillis();
+
         var hasFixedLocal = storeEntriesSet.stream()
                 .anyMatch(dataStoreEntry -> dataStoreEntry.getUuid().equals(LOCAL_ID));
 
@@ -201,7 +242,7 @@ public class StandardStorage extends DataStorage {
             var local = getStoreEntry(LOCAL_ID);
             if (local.getValidity() == DataStoreEntry.Validity.LOAD_FAILED) {
                 try {
-                    storeEntries.remove(local);
+                    removeStoreEntry(local);
                     local.deleteFromDisk();
                     hasFixedLocal = false;
                 } catch (IOException ex) {
@@ -218,7 +259,7 @@ public class StandardStorage extends DataStorage {
             var e = DataStoreEntry.createNew(
                     LOCAL_ID, DataStorage.DEFAULT_CATEGORY_UUID, "Local Machine", new LocalStore());
             e.setDirectory(getStoresDir().resolve(LOCAL_ID.toString()));
-            storeEntries.put(e, e);
+            putStoreEntry(e);
             e.validate();
         }
 
@@ -250,8 +291,11 @@ public class StandardStorage extends DataStorage {
         filterPerUserEntries();
 
         if (!hasFixedLocal) {
-            storeEntriesSet.removeIf(dataStoreEntry ->
-                    !dataStoreEntry.getUuid().equals(LOCAL_ID) && dataStoreEntry.getStore() instanceof LocalStore);
+            storeEntriesSet.stream()
+                    .filter(dataStoreEntry -> !dataStoreEntry.getUuid().equals(LOCAL_ID)
+                            && dataStoreEntry.getStore() instanceof LocalStore)
+                    .toList()
+                    .forEach(this::removeStoreEntry);
             storeEntriesSet.stream()
                     .filter(entry -> entry.getValidity() != DataStoreEntry.Validity.LOAD_FAILED)
                     .forEach(entry -> {
@@ -264,11 +308,146 @@ public class StandardStorage extends DataStorage {
 
         deleteLeftovers();
 
+        var initTime = System.currentTimeMillis() - initStart;
+        TrackEvent.withDebug("Loaded vault")
+                .tag("entries", storeEntriesSet.size())
+                .tag("parallel", shouldLoadInParallel())
+                .tag("snapshotHits", snapshotHits.get())
+                .tag("categoriesMs", categoriesTime)
+                .tag("entriesParseMs", parseTime)
+                .tag("entriesTotalMs", entriesTime)
+                .tag("initMs", initTime)
+                .tag("totalMs", System.currentTimeMillis() - startTime)
+                .handle();
+
         loaded = true;
         busyIo.unlock();
         this.dataStorageSyncHandler.afterStorageLoad();
     }
 
+    private static boolean shouldLoadInParallel() {
+        if (System.getProperty(PARALLEL_LOAD_PROP) != null) {
+            return Boolean.parseBoolean(System.getProperty(PARALLEL_LOAD_PROP));
+        }
+
+        return true;
+    }
+
+    private List<EntryLoadResult> loadEntryDirectories(List<Path> dirs) {
+        if (!shouldLoadInParallel()) {
+            return dirs.stream().map(path -> loadEntryDirectory(path)).toList();
+        }
+
+        return runInParallel(dirs, path -> loadEntryDirectory(path));
+    }
+
+    @SneakyThrows
+    private <T, R> List<R> runInParallel(List<T> items, Function<T, R> function) {
+        if (items.size() < 2) {
+            return items.stream().map(function).toList();
+        }
+
+        // Parsing and serializing keeps the processors busy, so use the shared bounded pool
+        var futures = items.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> function.apply(item), ThreadHelper.cpu()))
+                .toList();
+        var results = new ArrayList<R>(futures.size());
+        for (var future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        return results;
+    }
+
+    private EntryLoadResult loadEntryDirectory(Path path) {
+        try {
+            StorageElement.deleteTemporaryFiles(path);
+            try (Stream<Path> list = Files.list(path)) {
+                if (list.findAny().isEmpty()) {
+                    return new EntryLoadResult(path, null, null);
+                }
+            }
+
+            var snapshotFiles = getSnapshotEntryFiles(path);
+            if (snapshotFiles != null) {
+                snapshotHits.incrementAndGet();
+            }
+            var entry = snapshotFiles != null
+                    ? DataStoreEntry.fromFiles(path, snapshotFiles)
+                    : DataStoreEntry.fromDirectory(path);
+            return new EntryLoadResult(path, entry.orElse(null), null);
+        } catch (Exception ex) {
+            return new EntryLoadResult(path, null, ex);
+        }
+    }
+
+    private static boolean shouldUseSnapshot() {
+        if (System.getProperty(SNAPSHOT_PROP) != null) {
+            return Boolean.parseBoolean(System.getProperty(SNAPSHOT_PROP));
+        }
+
+        return true;
+    }
+
+    private Path getSnapshotFile() {
+        // The snapshot is a local cache and must not end up in the synced vault directory
+        // Different storage directories can be used, e.g. for workspaces, so each one gets its own snapshot
+        var id = UUID.nameUUIDFromBytes(dir.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return AppCache.getBasePath().resolve("storage-snapshot-" + id);
+    }
+
+    private DataStorageSnapshot readSnapshot() {
+        if (!shouldUseSnapshot() || AppCache.getBasePath() == null) {
+            return null;
+        }
+
+        try {
+            return DataStorageSnapshot.read(getSnapshotFile()).orElse(null);
+        } catch (Exception ex) {
+            // The snapshot is only a cache, so we can always fall back to the entry directories
+            ErrorEvent.fromThrowable(ex).expected().omit().build().handle();
+            return null;
+        }
+    }
+
+    private Map<String, byte[]> getSnapshotEntryFiles(Path path) {
+        if (snapshot == null) {
+            return null;
+        }
+
+        try {
+            var uuid = UUID.fromString(path.getFileName().toString());
+            return snapshot.getEntryFiles(uuid, path);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private void writeSnapshot() {
+        if (!shouldUseSnapshot() || AppCache.getBasePath() == null) {
+            return;
+        }
+
+        try {
+            var entries = storeEntriesSet.stream()
+                    .filter(dataStoreEntry -> dataStoreEntry.shouldSave())
+                    .toList();
+            DataStorageSnapshot.write(getSnapshotFile(), snapshot, entries);
+        } catch (Exception ex) {
+            ErrorEvent.fromThrowable(ex).expected().omit().build().handle();
+        }
+    }
+
+    @Value
+    private static class EntryLoadResult {
+        Path directory;
+        DataStoreEntry entry;
+        Exception exception;
+    }
+
     private void filterPerUserEntries() {
         var toRemove = getStoreEntries().stream()
                 .filter(dataStoreEntry -> shouldRemoveOtherUserEntry(dataStoreEntry))
@@ -276,7 +455,7 @@ public class StandardStorage extends DataStorage {
         directoriesToKeep.addAll(toRemove.stream()
                 .map(dataStoreEntry -> dataStoreEntry.getDirectory())
                 .toList());
-        toRemove.forEach(storeEntries::remove);
+        toRemove.forEach(this::removeStoreEntry);
     }
 
     private boolean shouldRemoveOtherUserEntry(DataStoreEntry entry) {
@@ -315,14 +494,27 @@ public class StandardStorage extends DataStorage {
         // Technically we would have to synchronize the saveQueued update to avoid a rare lost update
         // but in practice it doesn't really matter as the save queueing is optional
         // The last dispose save will save everything anyway, it's about optimizing before that
+        saveRequests.incrementAndGet();
         if (busyIo.isLocked()) {
             saveQueued = true;
             return;
         }
 
-        ThreadHelper.runAsync(() -> {
-            save(false);
-        });
+        // Coalesce all requests within the debounce window into one save operation
+        if (!saveScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        GlobalTimer.delayAsync(
+                () -> {
+                    saveScheduled.set(false);
+                    save(false);
+                },
+                SAVE_DEBOUNCE);
+    }
+
+    public int getSaveQueueDepth() {
+        return saveRequests.get();
     }
 
     public void save(boolean dispose) {
@@ -348,6 +540,8 @@ public class StandardStorage extends DataStorage {
         }
 
         this.saveQueued = false;
+        var coalescedRequests = saveRequests.getAndSet(0);
+        var startTime = System.currentTimeMillis();
 
         this.dataStorageSyncHandler.beforeStorageSave();
 
@@ -379,20 +573,46 @@ public class StandardStorage extends DataStorage {
             }
         });
 
-        storeEntriesSet.stream()
+        var toSave = storeEntriesSet.stream()
                 .filter(dataStoreEntry -> dataStoreEntry.shouldSave())
-                .forEach(e -> {
-                    try {
-                        var exists = Files.exists(e.getDirectory());
-                        var dirty = e.isDirty();
-                        e.writeDataToDisk();
-                        dataStorageSyncHandler.handleEntry(e, exists, dirty);
-                    } catch (Exception ex) {
-                        // Data corruption and schema changes are expected
-                        exception.set(ex);
-                        ErrorEvent.fromThrowable(ex).expected().omit().build().handle();
-                    }
-                });
+                .toList();
+        var existing = toSave.stream().map(e -> Files.exists(e.getDirectory())).toList();
+        var dirty = toSave.stream().map(e -> e.isDirty()).toList();
+        var dirtyEntries = new ArrayList<DataStoreEntry>();
+        for (int i = 0; i < toSave.size(); i++) {
+            if (dirty.get(i)) {
+                dirtyEntries.add(toSave.get(i));
+            }
+        }
+
+        // Serialize and write dirty entries in parallel, the sync handler is called in order afterward
+        var failed = new HashSet<DataStoreEntry>();
+        var results = runInParallel(dirtyEntries, e -> {
+            try {
+                e.writeDataToDisk();
+                return null;
+            } catch (Exception ex) {
+                return ex;
+            }
+        });
+        for (int i = 0; i < dirtyEntries.size(); i++) {
+            var ex = results.get(i);
+            if (ex != null) {
+                // Data corruption and schema changes are expected
+                failed.add(dirtyEntries.get(i));
+                exception.set(ex);
+                ErrorEvent.fromThrowable(ex).expected().omit().build().handle();
+            }
+        }
+
+        for (int i = 0; i < toSave.size(); i++) {
+            var e = toSave.get(i);
+            if (failed.contains(e)) {
+                continue;
+            }
+
+            dataStorageSyncHandler.handleEntry(e, existing.get(i), dirty.get(i));
+        }
 
         // Show one exception
         if (exception.get() != null) {
@@ -403,9 +623,18 @@ public class StandardStorage extends DataStorage {
         dataStorageUserHandler.save();
         dataStorageSyncHandler.afterStorageSave();
         if (dispose) {
+            // Only write the snapshot once on exit as it has to cover all entries
+            writeSnapshot();
             disposed = true;
         }
 
+        lastSaveDurationMillis = System.currentTimeMillis() - startTime;
+        TrackEvent.withTrace("Saved vault")
+                .tag("coalescedRequests", coalescedRequests)
+                .tag("writtenEntries", dirtyEntries.size())
+                .tag("durationMs", lastSaveDurationMillis)
+                .handle();
+
         busyIo.unlock();
         if (!dispose && saveQueued) {
             // Avoid stack overflow by doing it async
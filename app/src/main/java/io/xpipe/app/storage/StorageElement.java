@@ -6,7 +6,14 @@ import lombok.experimental.NonFinal;
 import org.apache.commons.io.FileUtils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +21,8 @@ import java.util.UUID;
 
 public abstract class StorageElement {
 
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
     @Getter
     protected final UUID uuid;
 
@@ -92,6 +101,48 @@ public abstract class StorageElement {
 
     public abstract void writeDataToDisk() throws Exception;
 
+    protected static void writeFileAtomically(Path file, String content) throws IOException {
+        // Write to a temporary file first, so we never leave a partially written file behind on a crash
+        var temp = file.resolveSibling(file.getFileName() + TEMP_FILE_SUFFIX);
+        try {
+            try (var channel = FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                var buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException deleteEx) {
+                ex.addSuppressed(deleteEx);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes temporary files of writes that have been interrupted by a crash, so they never end up being synced.
+     */
+    static void deleteTemporaryFiles(Path directory) throws IOException {
+        try (var temps = Files.newDirectoryStream(directory, "*" + TEMP_FILE_SUFFIX)) {
+            for (Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
     public synchronized Instant getLastAccess() {
         if (getLastUsed() == null) {
             return getLastModified();
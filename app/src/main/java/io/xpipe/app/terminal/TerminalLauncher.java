@@ -106,7 +106,8 @@ public class TerminalLauncher {
     public static void openDirect(
             String title, FailableFunction<ShellControl, ShellScript, Exception> command, ExternalTerminalType type)
             throws Exception {
-        try (var sc = LocalShell.getShell().start()) {
+        try (var lease = LocalShell.lease()) {
+            var sc = lease.getShellControl();
             var script = constructTerminalInitScript(
                     sc.getShellDialect(),
                     sc,
@@ -0,0 +1,179 @@
+package io.xpipe.app.util;
+
+import io.xpipe.app.issue.ErrorEvent;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named executor that keeps track of how many tasks are waiting and running and how long tasks had to wait.
+ * Tasks can be submitted with a key, e.g. a connection, in which case only a limited number of tasks
+ * for the same key run at the same time.
+ */
+public class AppExecutor implements Executor {
+
+    @Getter
+    private final String name;
+
+    private final ExecutorService delegate;
+    private final int perKeyLimit;
+    private final Map<Object, KeyLimit> keyLimits = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    public AppExecutor(String name, ExecutorService delegate, int perKeyLimit) {
+        this.name = name;
+        this.delegate = delegate;
+        this.perKeyLimit = perKeyLimit;
+    }
+
+    @Override
+    public void execute(Runnable r) {
+        submit(null, r);
+    }
+
+    public Future<?> submit(Runnable r) {
+        return submit(null, r);
+    }
+
+    public Future<?> submit(Object key, Runnable r) {
+        queued.incrementAndGet();
+        try {
+            return delegate.submit(wrap(key, r, System.nanoTime(), 0, true));
+        } catch (RejectedExecutionException ex) {
+            queued.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    public ScheduledFuture<?> schedule(Runnable r, Duration delay) {
+        var due = System.nanoTime() + delay.toNanos();
+        return scheduled().schedule(wrap(null, r, due, 0, false), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable r, Duration interval) {
+        var period = interval.toNanos();
+        return scheduled()
+                .scheduleAtFixedRate(wrap(null, r, System.nanoTime(), period, false), 0, period, TimeUnit.NANOSECONDS);
+    }
+
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+
+    /**
+     * The number of tasks that have been submitted for immediate execution but have not started yet.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * The average time between a task being due and it actually starting.
+     */
+    public Duration getAverageLatency() {
+        var count = started.get();
+        return Duration.ofNanos(count > 0 ? totalLatency.get() / count : 0);
+    }
+
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatency.get());
+    }
+
+    @Override
+    public String toString() {
+        return name + " [queued=" + getQueueDepth() + ", active=" + getActiveCount() + ", completed="
+                + getCompletedCount() + ", avgLatency=" + getAverageLatency().toMillis() + "ms, maxLatency="
+                + getMaxLatency().toMillis() + "ms]";
+    }
+
+    private ScheduledExecutorService scheduled() {
+        if (!(delegate instanceof ScheduledExecutorService s)) {
+            throw new UnsupportedOperationException("Executor " + name + " does not support scheduling");
+        }
+
+        return s;
+    }
+
+    private Runnable wrap(Object key, Runnable r, long due, long period, boolean counted) {
+        var nextDue = new AtomicLong(due);
+        return () -> {
+            var permit = key != null ? acquireKeyLimit(key) : null;
+            if (permit != null) {
+                permit.semaphore.acquireUninterruptibly();
+            }
+            if (counted) {
+                queued.decrementAndGet();
+            }
+
+            var latency = Math.max(0, System.nanoTime() - nextDue.get());
+            started.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+            if (period > 0) {
+                nextDue.addAndGet(period);
+            }
+
+            active.incrementAndGet();
+            try {
+                r.run();
+            } catch (Throwable t) {
+                // Executors swallow exceptions, so pass them on like a plain thread would
+                var handler = Thread.getDefaultUncaughtExceptionHandler();
+                if (handler != null) {
+                    handler.uncaughtException(Thread.currentThread(), t);
+                } else {
+                    ErrorEvent.fromThrowable(t).handle();
+                }
+            } finally {
+                active.decrementAndGet();
+                completed.incrementAndGet();
+                if (permit != null) {
+                    permit.semaphore.release();
+                    releaseKeyLimit(key);
+                }
+            }
+        };
+    }
+
+    private KeyLimit acquireKeyLimit(Object key) {
+        return keyLimits.compute(key, (k, limit) -> {
+            var l = limit != null ? limit : new KeyLimit(new Semaphore(perKeyLimit, true));
+            l.users++;
+            return l;
+        });
+    }
+
+    private void releaseKeyLimit(Object key) {
+        // Drop the limit once no task uses it anymore so that keys, e.g. removed connections, are not retained
+        keyLimits.computeIfPresent(key, (k, limit) -> --limit.users > 0 ? limit : null);
+    }
+
+    private static class KeyLimit {
+
+        private final Semaphore semaphore;
+        // Only modified within map compute functions, which are atomic per key
+        private int users;
+
+        private KeyLimit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+    }
+}
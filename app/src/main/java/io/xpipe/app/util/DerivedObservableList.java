@@ -18,6 +18,8 @@ import java.util.stream.Stream;
 @Getter
 public class DerivedObservableList<T> {
 
+    private static final int BULK_SORT_THRESHOLD = 16;
+
     public static <T> DerivedObservableList<T> synchronizedArrayList(boolean unique) {
         var list = new ArrayList<T>();
         return new DerivedObservableList<>(
@@ -170,37 +172,81 @@ public class DerivedObservableList<T> {
         }
     }
 
+    private List<T> sourceList() {
+        return backingList != null ? backingList : list;
+    }
+
     private Stream<T> listStream() {
-        if (backingList != null) {
-            return backingList.stream();
-        }
+        return sourceList().stream();
+    }
 
-        return list.stream();
+    private static int sizeBeforeChange(ListChangeListener.Change<?> c, int size) {
+        while (c.next()) {
+            size = size - c.getAddedSize() + c.getRemovedSize();
+        }
+        c.reset();
+        return size;
     }
 
     public <V> DerivedObservableList<V> mapped(Function<T, V> map) {
         var cache = new HashMap<T, V>();
         var l1 = this.<V>createNewDerived();
+        Function<T, V> cachedMap = v -> {
+            if (!cache.containsKey(v)) {
+                cache.put(v, map.apply(v));
+            }
+
+            return cache.get(v);
+        };
         Runnable runnable = () -> {
             List<V> toApply;
             synchronized (list) {
                 var listSet = new HashSet<>(list);
                 cache.keySet().removeIf(t -> !listSet.contains(t));
-                toApply = listStream()
-                        .map(v -> {
-                            if (!cache.containsKey(v)) {
-                                cache.put(v, map.apply(v));
-                            }
-
-                            return cache.get(v);
-                        })
-                        .toList();
+                toApply = listStream().map(cachedMap).toList();
             }
             l1.setContent(toApply);
         };
         runnable.run();
         list.addListener((ListChangeListener<? super T>) c -> {
-            runnable.run();
+            synchronized (list) {
+                // If we somehow got out of sync, start over
+                if (l1.list.size() != sizeBeforeChange(c, list.size())) {
+                    runnable.run();
+                    return;
+                }
+
+                var removed = new ArrayList<T>();
+                while (c.next()) {
+                    // Reordering is rare, so just compute the whole list again
+                    if (c.wasPermutated()) {
+                        runnable.run();
+                        return;
+                    }
+
+                    // Mapped values are cached per element, so an update does not change anything
+                    if (c.wasUpdated()) {
+                        continue;
+                    }
+
+                    if (c.wasRemoved()) {
+                        removed.addAll(c.getRemoved());
+                        l1.list.remove(c.getFrom(), c.getFrom() + c.getRemovedSize());
+                    }
+
+                    if (c.wasAdded()) {
+                        var added = c.getAddedSubList().stream().map(cachedMap).toList();
+                        l1.list.addAll(c.getFrom(), added);
+                    }
+                }
+
+                // Only drop cached values after the whole change, elements might have just been moved around
+                if (!removed.isEmpty()) {
+                    Collection<T> current = removed.size() > 8 ? new HashSet<>(list) : list;
+                    removed.removeIf(current::contains);
+                    removed.forEach(cache::remove);
+                }
+            }
         });
         return l1;
     }
@@ -223,19 +269,116 @@ public class DerivedObservableList<T> {
     }
 
     public DerivedObservableList<T> filtered(ObservableValue<Predicate<T>> predicate) {
+        return filtered(predicate, false);
+    }
+
+    /**
+     * Filters the list by only testing the elements of a change again instead of all elements.
+     * All elements are only tested again when one of the observables changes.
+     * This is only correct if the result of the predicate for an element doesn't depend on anything else than the
+     * element itself and the observables, and the element changes are reported as update events by the source list.
+     */
+    public DerivedObservableList<T> filteredIncremental(Predicate<T> predicate, Observable... observables) {
+        return filtered(
+                Bindings.createObjectBinding(
+                        () -> {
+                            return new Predicate<>() {
+                                @Override
+                                public boolean test(T v) {
+                                    return predicate.test(v);
+                                }
+                            };
+                        },
+                        Arrays.stream(observables).filter(Objects::nonNull).toArray(Observable[]::new)),
+                true);
+    }
+
+    private DerivedObservableList<T> filtered(ObservableValue<Predicate<T>> predicate, boolean incremental) {
         var d = this.<T>createNewDerived();
+        // Whether the element at the same index in the source list is included
+        var matches = new ArrayList<Boolean>();
         Runnable runnable = () -> {
             List<T> toApply;
             synchronized (list) {
-                toApply = predicate.getValue() != null
-                        ? listStream().filter(predicate.getValue()).toList()
-                        : list;
+                var p = predicate.getValue();
+                matches.clear();
+                toApply = new ArrayList<>();
+                for (T t : sourceList()) {
+                    var match = p == null || p.test(t);
+                    matches.add(match);
+                    if (match) {
+                        toApply.add(t);
+                    }
+                }
             }
             d.setContent(toApply);
         };
         runnable.run();
         list.addListener((ListChangeListener<? super T>) c -> {
-            runnable.run();
+            synchronized (list) {
+                // The predicate might depend on other elements or mutable state, so check everything again
+                if (!incremental
+                        || matches.size() != sizeBeforeChange(c, list.size())
+                        || d.list.size() != countMatches(matches, matches.size())) {
+                    runnable.run();
+                    return;
+                }
+
+                var p = predicate.getValue();
+                while (c.next()) {
+                    if (c.wasPermutated()) {
+                        runnable.run();
+                        return;
+                    }
+
+                    // Only check the changed elements again
+                    if (c.wasUpdated()) {
+                        for (int i = c.getFrom(); i < c.getTo(); i++) {
+                            var t = c.getList().get(i);
+                            var match = p == null || p.test(t);
+                            if (match == matches.get(i)) {
+                                continue;
+                            }
+
+                            var index = countMatches(matches, i);
+                            matches.set(i, match);
+                            if (match) {
+                                d.list.add(index, t);
+                            } else {
+                                d.list.remove(index);
+                            }
+                        }
+                        continue;
+                    }
+
+                    if (c.wasRemoved()) {
+                        var index = countMatches(matches, c.getFrom());
+                        var range = matches.subList(c.getFrom(), c.getFrom() + c.getRemovedSize());
+                        var removedCount = countMatches(range, range.size());
+                        range.clear();
+                        if (removedCount > 0) {
+                            d.list.remove(index, index + removedCount);
+                        }
+                    }
+
+                    if (c.wasAdded()) {
+                        var index = countMatches(matches, c.getFrom());
+                        var added = new ArrayList<T>();
+                        var addedMatches = new ArrayList<Boolean>();
+                        for (T t : c.getAddedSubList()) {
+                            var match = p == null || p.test(t);
+                            addedMatches.add(match);
+                            if (match) {
+                                added.add(t);
+                            }
+                        }
+                        matches.addAll(c.getFrom(), addedMatches);
+                        if (!added.isEmpty()) {
+                            d.list.addAll(index, added);
+                        }
+                    }
+                }
+            }
         });
         predicate.addListener(observable -> {
             runnable.run();
@@ -243,6 +386,16 @@ public class DerivedObservableList<T> {
         return d;
     }
 
+    private static int countMatches(List<Boolean> matches, int end) {
+        var count = 0;
+        for (int i = 0; i < end; i++) {
+            if (matches.get(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     public DerivedObservableList<T> sorted(Comparator<T> comp, Observable... observables) {
         return sorted(Bindings.createObjectBinding(
                 () -> {
@@ -257,6 +410,32 @@ public class DerivedObservableList<T> {
     }
 
     public DerivedObservableList<T> sorted(ObservableValue<Comparator<T>> comp) {
+        return sorted(comp, false);
+    }
+
+    /**
+     * Sorts the list by only inserting and moving the elements of a change instead of sorting all elements.
+     * All elements are only sorted again when one of the observables changes.
+     * This is only correct if the sort key of an element doesn't depend on anything else than the
+     * element itself and the observables, and the element changes are reported as update events by the source list.
+     */
+    public DerivedObservableList<T> sortedIncremental(Comparator<T> comp, Observable... observables) {
+        return sorted(
+                Bindings.createObjectBinding(
+                        () -> {
+                            return new Comparator<>() {
+                                @Override
+                                public int compare(T o1, T o2) {
+                                    return comp.compare(o1, o2);
+                                }
+                            };
+                        },
+                        Arrays.stream(observables).filter(Objects::nonNull).toArray(Observable[]::new)),
+                true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DerivedObservableList<T> sorted(ObservableValue<Comparator<T>> comp, boolean incremental) {
         var d = this.<T>createNewDerived();
         Runnable runnable = () -> {
             List<T> toApply;
@@ -267,11 +446,103 @@ public class DerivedObservableList<T> {
         };
         runnable.run();
         list.addListener((ListChangeListener<? super T>) c -> {
-            runnable.run();
+            synchronized (list) {
+                // The sort keys of the existing elements might have changed, so sort everything again
+                if (!incremental || d.list.size() != sizeBeforeChange(c, list.size())) {
+                    runnable.run();
+                    return;
+                }
+
+                var cmp = comp.getValue() != null ? comp.getValue() : (Comparator<T>) Comparator.naturalOrder();
+                while (c.next()) {
+                    // The order of the source list does not matter
+                    if (c.wasPermutated()) {
+                        continue;
+                    }
+
+                    // Inserting many elements one by one is slower than just sorting everything again
+                    if (c.getAddedSize() > BULK_SORT_THRESHOLD) {
+                        runnable.run();
+                        return;
+                    }
+
+                    if (c.wasUpdated()) {
+                        for (int i = c.getFrom(); i < c.getTo(); i++) {
+                            var t = c.getList().get(i);
+                            var index = d.backingList.indexOf(t);
+                            if (index == -1) {
+                                runnable.run();
+                                return;
+                            }
+
+                            if (isSortedAt(d.backingList, index, cmp)) {
+                                continue;
+                            }
+
+                            d.list.remove(index);
+                            insertSorted(d, t, cmp);
+                        }
+                        continue;
+                    }
+
+                    for (T t : c.getRemoved()) {
+                        var index = indexOfSorted(d.backingList, t, cmp);
+                        if (index == -1) {
+                            runnable.run();
+                            return;
+                        }
+                        d.list.remove(index);
+                    }
+
+                    for (T t : c.getAddedSubList()) {
+                        insertSorted(d, t, cmp);
+                    }
+                }
+            }
         });
         comp.addListener(observable -> {
             d.list.sort(comp.getValue());
         });
         return d;
     }
+
+    private static <T> boolean isSortedAt(List<T> list, int index, Comparator<T> cmp) {
+        var t = list.get(index);
+        return (index == 0 || cmp.compare(list.get(index - 1), t) <= 0)
+                && (index == list.size() - 1 || cmp.compare(t, list.get(index + 1)) <= 0);
+    }
+
+    private static <T> void insertSorted(DerivedObservableList<T> d, T t, Comparator<T> cmp) {
+        // Insert after all equal elements to keep the insertion order for them
+        var lo = 0;
+        var hi = d.backingList.size();
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (cmp.compare(d.backingList.get(mid), t) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        d.list.add(lo, t);
+    }
+
+    private static <T> int indexOfSorted(List<T> list, T t, Comparator<T> cmp) {
+        var found = Collections.binarySearch(list, t, cmp);
+        if (found >= 0) {
+            for (int i = found; i >= 0 && cmp.compare(list.get(i), t) == 0; i--) {
+                if (Objects.equals(list.get(i), t)) {
+                    return i;
+                }
+            }
+            for (int i = found + 1; i < list.size() && cmp.compare(list.get(i), t) == 0; i++) {
+                if (Objects.equals(list.get(i), t)) {
+                    return i;
+                }
+            }
+        }
+
+        // The sort key of the element might have changed in the meantime
+        return list.indexOf(t);
+    }
 }
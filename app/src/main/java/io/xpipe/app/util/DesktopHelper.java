@@ -56,7 +56,8 @@ public class DesktopHelper {
             return Path.of(LocalShell.getLocalPowershell()
                     .executeSimpleStringCommand("[Environment]::GetFolderPath([Environment+SpecialFolder]::Desktop)"));
         } else if (OsType.getLocal() == OsType.LINUX) {
-            try (var sc = LocalShell.getShell().start()) {
+            try (var lease = LocalShell.lease()) {
+                var sc = lease.getShellControl();
                 var out = sc.command("xdg-user-dir DESKTOP").readStdoutIfPossible();
                 if (out.isPresent()) {
                     return Path.of(out.get());
@@ -73,7 +74,8 @@ public class DesktopHelper {
                     .executeSimpleStringCommand(
                             "(New-Object -ComObject Shell.Application).NameSpace('shell:Downloads').Self.Path"));
         } else if (OsType.getLocal() == OsType.LINUX) {
-            try (var sc = LocalShell.getShell().start()) {
+            try (var lease = LocalShell.lease()) {
+                var sc = lease.getShellControl();
                 var out = sc.command("xdg-user-dir DOWNLOAD").readStdoutIfPossible();
                 if (out.isPresent() && !out.get().isBlank()) {
                     return Path.of(out.get());
@@ -67,7 +67,8 @@ public class FileOpener {
     }
 
     public static void openInDefaultApplication(String localFile) {
-        try (var pc = LocalShell.getShell().start()) {
+        try (var lease = LocalShell.lease()) {
+            var pc = lease.getShellControl();
             if (pc.getOsType().equals(OsType.WINDOWS)) {
                 if (pc.getShellDialect() == ShellDialects.POWERSHELL) {
                     pc.command(CommandBuilder.of().add("Invoke-Item").addFile(localFile))
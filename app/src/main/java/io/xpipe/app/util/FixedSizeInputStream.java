@@ -1,5 +1,8 @@
 package io.xpipe.app.util;
 
+import lombok.NonNull;
+
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -20,12 +23,29 @@ public class FixedSizeInputStream extends SimpleFilterInputStream {
         }
 
         var read = in.read();
+        if (read == -1) {
+            throw new EOFException("Stream ended after " + count + " of " + size + " bytes");
+        }
+
         count++;
+        return read;
+    }
+
+    @Override
+    public int read(byte @NonNull [] b, int off, int len) throws IOException {
+        if (count >= size) {
+            return -1;
+        }
+
+        var toRead = (int) Math.min(len, size - count);
+        var read = in.read(b, off, toRead);
         if (read == -1) {
-            return 0;
-        } else {
-            return read;
+            // Padding the missing bytes would silently produce a corrupted file
+            throw new EOFException("Stream ended after " + count + " of " + size + " bytes");
         }
+
+        count += read;
+        return read;
     }
 
     @Override
@@ -3,71 +3,69 @@ package io.xpipe.app.util;
 import io.xpipe.core.util.FailableRunnable;
 
 import java.time.Duration;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 public class GlobalTimer {
 
-    private static Timer TIMER;
+    private static AppExecutor EXECUTOR;
 
     public static void init() {
-        TIMER = new Timer("global-timer", true);
+        var executor = new ScheduledThreadPoolExecutor(1, r -> {
+            return ThreadHelper.createPlatformThread("global-timer", true, r);
+        });
+        // Don't keep cancelled tasks around until their original due time
+        executor.setRemoveOnCancelPolicy(true);
+        EXECUTOR = new AppExecutor("global-timer", executor, 1);
     }
 
     public static void reset() {
-        if (TIMER == null) {
+        if (EXECUTOR == null) {
             return;
         }
 
-        TIMER.cancel();
-        TIMER = null;
+        EXECUTOR.shutdown();
+        EXECUTOR = null;
+    }
+
+    public static AppExecutor getExecutor() {
+        return EXECUTOR;
     }
 
     public static void scheduleUntil(Duration interval, Supplier<Boolean> s) {
-        var task = new TimerTask() {
-            @Override
-            public void run() {
-                if (!s.get()) {
-                    return;
-                }
+        var future = new AtomicReference<ScheduledFuture<?>>();
+        var done = new AtomicBoolean();
+        future.set(EXECUTOR.scheduleAtFixedRate(
+                () -> {
+                    if (done.get() || !s.get()) {
+                        return;
+                    }
 
-                cancel();
-            }
-        };
-        TIMER.scheduleAtFixedRate(task, 0, interval.toMillis());
+                    done.set(true);
+                    // The first run might happen before the future is set
+                    var f = future.get();
+                    if (f != null) {
+                        f.cancel(false);
+                    }
+                },
+                interval));
+        if (done.get()) {
+            future.get().cancel(false);
+        }
     }
 
     public static void delay(Runnable r, Duration delay) {
-        TIMER.schedule(
-                new TimerTask() {
-                    @Override
-                    public void run() {
-                        r.run();
-                    }
-                },
-                delay.toMillis());
+        EXECUTOR.schedule(r, delay);
     }
 
     public static void delayAsync(Runnable r, Duration delay) {
-        TIMER.schedule(
-                new TimerTask() {
-                    @Override
-                    public void run() {
-                        ThreadHelper.runAsync(r);
-                    }
-                },
-                delay.toMillis());
+        EXECUTOR.schedule(() -> ThreadHelper.runAsync(r), delay);
     }
 
     public static void delayFailableAsync(FailableRunnable<Throwable> r, Duration delay) {
-        TIMER.schedule(
-                new TimerTask() {
-                    @Override
-                    public void run() {
-                        ThreadHelper.runFailableAsync(r);
-                    }
-                },
-                delay.toMillis());
+        EXECUTOR.schedule(() -> ThreadHelper.runFailableAsync(r), delay);
     }
 }
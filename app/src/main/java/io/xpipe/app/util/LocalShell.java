@@ -6,28 +6,195 @@ import io.xpipe.core.process.*;
 
 import lombok.Getter;
 import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 public class LocalShell {
 
+    private static final String POOL_SIZE_PROP = "io.xpipe.app.localShellPoolSize";
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final Duration POOL_IDLE_TIMEOUT = Duration.ofMinutes(1);
+    private static final Duration POOL_CHECK_INTERVAL = Duration.ofSeconds(30);
+
     @Getter
     private static LocalShellCache localCache;
 
     private static ShellControl local;
     private static ShellControl localPowershell;
 
+    private static final Deque<PooledShell> idle = new ArrayDeque<>();
+    private static int pooledCount;
+    // The timer executor the idle check has been scheduled on, a reset timer requires scheduling it again
+    private static AppExecutor poolCheckStartedOn;
+
     public static void init() throws Exception {
-        local = ProcessControlProvider.get().createLocalProcessControl(false).start();
+        local = createLocal();
+        localCache = new LocalShellCache(local);
+
+        // Have one additional shell ready for the first time the shared one is busy
+        ThreadHelper.runAsync(LocalShell::warmUp);
+    }
+
+    private static ShellControl createLocal() throws Exception {
+        var sc = ProcessControlProvider.get().createLocalProcessControl(false).start();
 
         // Ensure that electron applications on Linux use wayland features if possible
         // https://github.com/microsoft/vscode/issues/207033#issuecomment-2167500295
         if (OsType.getLocal() == OsType.LINUX) {
-            local.writeLine(local.getShellDialect().getSetEnvironmentVariableCommand("ELECTRON_OZONE_PLATFORM_HINT", "auto"));
+            sc.writeLine(sc.getShellDialect().getSetEnvironmentVariableCommand("ELECTRON_OZONE_PLATFORM_HINT", "auto"));
         }
+        return sc;
+    }
 
-        localCache = new LocalShellCache(local);
+    private static int getPoolSize() {
+        return Math.max(0, Integer.getInteger(POOL_SIZE_PROP, DEFAULT_POOL_SIZE));
+    }
+
+    private static void warmUp() {
+        synchronized (idle) {
+            if (local == null || pooledCount > 0 || getPoolSize() == 0) {
+                return;
+            }
+            pooledCount++;
+        }
+
+        try {
+            var sc = createLocal();
+            release(new PooledShell(sc, System.currentTimeMillis()));
+        } catch (Exception e) {
+            synchronized (idle) {
+                pooledCount--;
+            }
+            ErrorEvent.fromThrowable(e).omit().expected().handle();
+        }
+        startPoolCheckIfNeeded();
+    }
+
+    /**
+     * Leases a local shell for work that doesn't depend on any state of the shared local shell.
+     * The shared shell is used if nobody else is using it right now. Otherwise, an additional pooled shell is used
+     * so that independent local operations don't have to wait for each other.
+     * If the pool is exhausted, this falls back to the shared shell.
+     * The lease has to be closed to return the shell, the shell itself must not be closed.
+     */
+    public static Lease lease() {
+        if (local == null) {
+            throw new IllegalStateException("Local shell not initialized yet");
+        }
+
+        if (!local.getLock().isLocked()) {
+            return new Lease(getShell(), null);
+        }
+
+        while (true) {
+            PooledShell pooled;
+            boolean create = false;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+                if (pooled == null && pooledCount < getPoolSize()) {
+                    pooledCount++;
+                    create = true;
+                }
+            }
+
+            if (pooled != null) {
+                if (isUsable(pooled.getShellControl())) {
+                    return new Lease(pooled.getShellControl(), pooled);
+                }
+
+                discard(pooled);
+                continue;
+            }
+
+            if (create) {
+                try {
+                    var sc = createLocal();
+                    startPoolCheckIfNeeded();
+                    return new Lease(sc, new PooledShell(sc, System.currentTimeMillis()));
+                } catch (Exception e) {
+                    synchronized (idle) {
+                        pooledCount--;
+                    }
+                    ErrorEvent.fromThrowable(e).omit().expected().handle();
+                }
+            }
+
+            return new Lease(getShell(), null);
+        }
+    }
+
+    private static boolean isUsable(ShellControl sc) {
+        return sc.isRunning(false) && !sc.isAnyStreamClosed();
+    }
+
+    private static void release(PooledShell pooled) {
+        synchronized (idle) {
+            // The pool has been reset in the meantime and no longer counts this shell
+            if (local == null) {
+                pooled.getShellControl().kill();
+                return;
+            }
+
+            if (isUsable(pooled.getShellControl())) {
+                idle.addFirst(new PooledShell(pooled.getShellControl(), System.currentTimeMillis()));
+                return;
+            }
+        }
+
+        discard(pooled);
+    }
+
+    private static void discard(PooledShell pooled) {
+        synchronized (idle) {
+            pooledCount--;
+        }
+        pooled.getShellControl().kill();
+    }
+
+    private static void startPoolCheckIfNeeded() {
+        synchronized (idle) {
+            var executor = GlobalTimer.getExecutor();
+            if (executor == null || executor == poolCheckStartedOn) {
+                return;
+            }
+            poolCheckStartedOn = executor;
+        }
+
+        GlobalTimer.scheduleUntil(POOL_CHECK_INTERVAL, () -> {
+            closeIdleShells();
+            return false;
+        });
+    }
+
+    private static void closeIdleShells() {
+        var now = System.currentTimeMillis();
+        synchronized (idle) {
+            // Keep one warm shell around, the least recently used ones are at the end
+            while (idle.size() > 1 && now - idle.peekLast().getLastUsed() > POOL_IDLE_TIMEOUT.toMillis()) {
+                var pooled = idle.pollLast();
+                pooledCount--;
+                ThreadHelper.runAsync(() -> {
+                    try {
+                        pooled.getShellControl().exitAndWait();
+                    } catch (Exception e) {
+                        ErrorEvent.fromThrowable(e).omit().handle();
+                        pooled.getShellControl().kill();
+                    }
+                });
+            }
+        }
     }
 
     public static void reset(boolean force) {
+        synchronized (idle) {
+            idle.forEach(pooled -> pooled.getShellControl().kill());
+            idle.clear();
+            pooledCount = 0;
+        }
+
         if (local != null) {
             if (!force) {
                 try {
@@ -94,4 +261,36 @@ public class LocalShell {
     public static ShellDialect getDialect() {
         return ProcessControlProvider.get().getEffectiveLocalDialect();
     }
+
+    @Value
+    private static class PooledShell {
+        ShellControl shellControl;
+        long lastUsed;
+    }
+
+    public static class Lease implements AutoCloseable {
+
+        @Getter
+        private final ShellControl shellControl;
+
+        private final PooledShell pooled;
+        private boolean closed;
+
+        private Lease(ShellControl shellControl, PooledShell pooled) {
+            this.shellControl = shellControl;
+            this.pooled = pooled;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            if (pooled != null) {
+                release(pooled);
+            }
+        }
+    }
 }
@@ -19,6 +19,12 @@ public class PasswdFile {
         return passwdFile;
     }
 
+    public static PasswdFile of(Map<Integer, String> users) {
+        var passwdFile = new PasswdFile();
+        passwdFile.users.putAll(users);
+        return passwdFile;
+    }
+
     private final Map<Integer, String> users = new LinkedHashMap<>();
 
     public OptionalInt getUidForUserIfPresent(String name) {
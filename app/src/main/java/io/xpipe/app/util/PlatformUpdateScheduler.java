@@ -0,0 +1,168 @@
+package io.xpipe.app.util;
+
+import io.xpipe.app.core.mode.OperationMode;
+import io.xpipe.app.issue.ErrorEvent;
+
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects updates for the platform thread and applies them together in a single runnable,
+ * so that a burst of changes from background threads, e.g. a scan that adds thousands of entries,
+ * doesn't flood the event queue with one runnable per change.
+ * Updates that are marked with the same key are only applied once per batch.
+ * A batch that exceeds its time budget continues with the remaining updates in a later runnable,
+ * so input and rendering can happen in between.
+ */
+public class PlatformUpdateScheduler {
+
+    private static final String BUDGET_PROP = "io.xpipe.app.platformUpdateBudgetMs";
+    private static final int DEFAULT_BUDGET_MS = 12;
+
+    private static final Object LOCK = new Object();
+    private static final LinkedHashMap<Object, Runnable> pending = new LinkedHashMap<>();
+    private static boolean scheduled;
+    private static boolean applying;
+
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static final AtomicLong applied = new AtomicLong();
+    private static final AtomicLong batches = new AtomicLong();
+    private static final AtomicLong overruns = new AtomicLong();
+    private static final AtomicLong maxBatchDuration = new AtomicLong();
+
+    private static long getBudgetNanos() {
+        return Duration.ofMillis(Math.max(1, Integer.getInteger(BUDGET_PROP, DEFAULT_BUDGET_MS)))
+                .toNanos();
+    }
+
+    /**
+     * Schedules an update for the key. If an update for the same key is still pending, it is replaced.
+     * When called on the platform thread outside a batch, the update is applied immediately.
+     * Within a batch, it is applied after the other pending updates of the batch.
+     */
+    public static void markDirty(Object key, Runnable update) {
+        if (!PlatformThread.canRunPlatform()) {
+            return;
+        }
+
+        if (Platform.isFxApplicationThread() && !applying) {
+            synchronized (LOCK) {
+                pending.remove(key);
+            }
+            run(update);
+            return;
+        }
+
+        submitted.incrementAndGet();
+        synchronized (LOCK) {
+            if (pending.put(key, update) != null) {
+                coalesced.incrementAndGet();
+            }
+            scheduleIfNeeded();
+        }
+    }
+
+    /**
+     * Schedules an update that is applied in order with all other updates, even when called on the platform thread.
+     */
+    public static void submit(Runnable update) {
+        if (OperationMode.isInShutdown()) {
+            return;
+        }
+
+        submitted.incrementAndGet();
+        synchronized (LOCK) {
+            pending.put(new Object(), update);
+            scheduleIfNeeded();
+        }
+    }
+
+    public static int getQueuedCount() {
+        synchronized (LOCK) {
+            return pending.size();
+        }
+    }
+
+    public static long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public static long getAppliedCount() {
+        return applied.get();
+    }
+
+    public static long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * The number of batches that ran out of their time budget before all pending updates were applied.
+     */
+    public static long getOverrunCount() {
+        return overruns.get();
+    }
+
+    public static Duration getMaxBatchDuration() {
+        return Duration.ofNanos(maxBatchDuration.get());
+    }
+
+    public static String getStatistics() {
+        return "[queued=" + getQueuedCount() + ", submitted=" + submitted.get() + ", coalesced=" + getCoalescedCount()
+                + ", applied=" + getAppliedCount() + ", batches=" + getBatchCount() + ", overruns="
+                + getOverrunCount() + ", maxBatch=" + getMaxBatchDuration().toMillis() + "ms]";
+    }
+
+    private static void scheduleIfNeeded() {
+        if (scheduled) {
+            return;
+        }
+
+        scheduled = true;
+        Platform.runLater(PlatformUpdateScheduler::applyBatch);
+    }
+
+    private static void applyBatch() {
+        var start = System.nanoTime();
+        var budget = getBudgetNanos();
+        batches.incrementAndGet();
+        applying = true;
+        while (true) {
+            Runnable next;
+            synchronized (LOCK) {
+                if (pending.isEmpty()) {
+                    scheduled = false;
+                    break;
+                }
+
+                if (System.nanoTime() - start > budget) {
+                    overruns.incrementAndGet();
+                    Platform.runLater(PlatformUpdateScheduler::applyBatch);
+                    break;
+                }
+
+                var it = pending.entrySet().iterator();
+                Map.Entry<Object, Runnable> e = it.next();
+                it.remove();
+                next = e.getValue();
+            }
+
+            run(next);
+            applied.incrementAndGet();
+        }
+        applying = false;
+        maxBatchDuration.accumulateAndGet(System.nanoTime() - start, Math::max);
+    }
+
+    private static void run(Runnable r) {
+        try {
+            r.run();
+        } catch (Throwable t) {
+            ErrorEvent.fromThrowable(t).handle();
+        }
+    }
+}
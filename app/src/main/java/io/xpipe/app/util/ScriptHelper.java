@@ -19,7 +19,8 @@ public class ScriptHelper {
 
     @SneakyThrows
     public static FilePath createLocalExecScript(String content) {
-        try (var l = LocalShell.getShell().start()) {
+        try (var lease = LocalShell.lease()) {
+            var l = lease.getShellControl();
             return createExecScript(l, content);
         }
     }
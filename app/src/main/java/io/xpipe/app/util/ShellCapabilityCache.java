@@ -0,0 +1,234 @@
+package io.xpipe.app.util;
+
+import io.xpipe.app.core.AppCache;
+import io.xpipe.app.issue.ErrorEvent;
+import io.xpipe.core.process.ShellControl;
+import io.xpipe.core.util.FailableSupplier;
+import io.xpipe.core.util.JacksonMapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Remembers probed properties of remote systems, e.g. installed applications or users, across sessions.
+ * Values are keyed by the connection id and a fingerprint of the system and the connection configuration,
+ * so a connection that now points to a different system or logs in as a different user doesn't get outdated values.
+ * The cache is stored in the local cache directory and not in the vault, so it is never synced.
+ */
+public class ShellCapabilityCache {
+
+    private static final String CACHE_KEY = "shellCapabilities";
+    private static final String TTL_PROP = "io.xpipe.app.shellCapabilityTtlHours";
+    private static final int DEFAULT_TTL_HOURS = 24;
+    private static final Duration SAVE_DELAY = Duration.ofSeconds(5);
+
+    private static Map<String, Map<String, CachedValue>> hosts;
+    private static boolean saveScheduled;
+
+    private static Duration getTtl() {
+        return Duration.ofHours(Math.max(0, Integer.getInteger(TTL_PROP, DEFAULT_TTL_HOURS)));
+    }
+
+    /**
+     * Returns the cached value for the system of this shell or computes and caches it if it is absent or expired.
+     * Shells that don't belong to a connection are not cached.
+     */
+    public static <T> T getOrCompute(
+            ShellControl sc, String key, TypeReference<T> type, FailableSupplier<T> supplier) throws Exception {
+        return getOrCompute(sc, key, JacksonMapper.getDefault().getTypeFactory().constructType(type), supplier);
+    }
+
+    public static <T> T getOrCompute(ShellControl sc, String key, Class<T> type, FailableSupplier<T> supplier)
+            throws Exception {
+        return getOrCompute(sc, key, JacksonMapper.getDefault().getTypeFactory().constructType(type), supplier);
+    }
+
+    /**
+     * Like {@link #getOrCompute(ShellControl, String, Class, FailableSupplier)}, but only remembers values
+     * that match the filter. This is useful for values that can change at any time, e.g. an application
+     * that is not installed yet, which should not be assumed to stay that way.
+     */
+    public static <T> T getOrCompute(
+            ShellControl sc, String key, Class<T> type, FailableSupplier<T> supplier, Predicate<T> filter)
+            throws Exception {
+        return getOrCompute(
+                sc, key, JacksonMapper.getDefault().getTypeFactory().constructType(type), supplier, filter);
+    }
+
+    private static <T> T getOrCompute(ShellControl sc, String key, JavaType type, FailableSupplier<T> supplier)
+            throws Exception {
+        return getOrCompute(sc, key, type, supplier, v -> true);
+    }
+
+    private static <T> T getOrCompute(
+            ShellControl sc, String key, JavaType type, FailableSupplier<T> supplier, Predicate<T> filter)
+            throws Exception {
+        var hostKey = getHostKey(sc);
+        if (hostKey.isEmpty() || getTtl().isZero()) {
+            return supplier.get();
+        }
+
+        var values = getHosts().computeIfAbsent(hostKey.get(), k -> new ConcurrentHashMap<>());
+        var cached = values.get(key);
+        if (cached != null && !cached.isExpired()) {
+            try {
+                T value = JacksonMapper.getDefault().convertValue(cached.value(), type);
+                // Values might have been remembered before they were filtered
+                if (value != null && filter.test(value)) {
+                    return value;
+                }
+                values.remove(key);
+            } catch (IllegalArgumentException ex) {
+                ErrorEvent.fromThrowable(ex).omit().expected().handle();
+                values.remove(key);
+            }
+        }
+
+        var value = supplier.get();
+        if (value != null && filter.test(value)) {
+            values.put(key, new CachedValue(JacksonMapper.getDefault().valueToTree(value), System.currentTimeMillis()));
+            scheduleSave();
+        }
+        return value;
+    }
+
+    public static void invalidate(UUID connection) {
+        if (connection == null) {
+            return;
+        }
+
+        var prefix = connection + "/";
+        if (getHosts().keySet().removeIf(k -> k.startsWith(prefix))) {
+            scheduleSave();
+        }
+    }
+
+    public static void invalidate(ShellControl sc) {
+        sc.getSourceStoreId().ifPresent(ShellCapabilityCache::invalidate);
+    }
+
+    public static void clear() {
+        getHosts().clear();
+        scheduleSave();
+    }
+
+    public static synchronized void save() {
+        saveScheduled = false;
+        if (hosts == null) {
+            return;
+        }
+
+        var root = JsonNodeFactory.instance.objectNode();
+        hosts.forEach((host, values) -> {
+            var hostNode = root.putObject(host);
+            values.forEach((key, value) -> {
+                if (value.isExpired()) {
+                    return;
+                }
+
+                var valueNode = hostNode.putObject(key);
+                valueNode.set("value", value.value());
+                valueNode.put("created", value.created());
+            });
+        });
+        AppCache.update(CACHE_KEY, root);
+    }
+
+    private static Optional<String> getHostKey(ShellControl sc) {
+        var id = sc.getSourceStoreId();
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // The connection configuration contains the login user, so a different user gets different values
+        var fingerprint = sc.getOsType().getId() + ":" + sc.getShellDialect().getId() + ":" + sc.getOsName() + ":"
+                + getConfigurationHash(sc);
+        return Optional.of(id.get() + "/" + Integer.toHexString(fingerprint.hashCode()));
+    }
+
+    private static String getConfigurationHash(ShellControl sc) {
+        var store = sc.getSourceStore();
+        if (store.isEmpty()) {
+            return "";
+        }
+
+        try {
+            // Secrets are censored, they would change with every encryption and shouldn't end up in the cache
+            var json = JacksonMapper.getCensored().writeValueAsBytes(store.get());
+            var digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (Exception ex) {
+            ErrorEvent.fromThrowable(ex).omit().expected().handle();
+            return "";
+        }
+    }
+
+    private static synchronized Map<String, Map<String, CachedValue>> getHosts() {
+        if (hosts != null) {
+            return hosts;
+        }
+
+        hosts = new ConcurrentHashMap<>();
+        if (AppCache.getBasePath() == null) {
+            return hosts;
+        }
+
+        JsonNode root = AppCache.getNonNull(CACHE_KEY, JsonNode.class, () -> null);
+        if (!(root instanceof ObjectNode)) {
+            return hosts;
+        }
+
+        root.properties().forEach(host -> {
+            var values = new ConcurrentHashMap<String, CachedValue>();
+            host.getValue().properties().forEach(e -> {
+                var value = e.getValue().get("value");
+                var created = e.getValue().get("created");
+                if (value == null || created == null || !created.canConvertToLong()) {
+                    return;
+                }
+
+                var cached = new CachedValue(value, created.asLong());
+                if (!cached.isExpired()) {
+                    values.put(e.getKey(), cached);
+                }
+            });
+            if (!values.isEmpty()) {
+                hosts.put(host.getKey(), values);
+            }
+        });
+        return hosts;
+    }
+
+    private static synchronized void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+
+        if (GlobalTimer.getExecutor() == null) {
+            save();
+            return;
+        }
+
+        saveScheduled = true;
+        GlobalTimer.delayAsync(ShellCapabilityCache::save, SAVE_DELAY);
+    }
+
+    private record CachedValue(JsonNode value, long created) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - created > getTtl().toMillis();
+        }
+    }
+}
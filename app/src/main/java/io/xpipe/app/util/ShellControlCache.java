@@ -5,6 +5,7 @@ import io.xpipe.core.util.FailableSupplier;
 
 import lombok.Getter;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -13,8 +14,8 @@ import java.util.function.Supplier;
 public class ShellControlCache {
 
     private final ShellControl shellControl;
-    private final Map<String, Boolean> installedApplications = new HashMap<>();
-    private final Map<String, Object> multiPurposeCache = new HashMap<>();
+    private final Map<String, Boolean> installedApplications = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Object> multiPurposeCache = Collections.synchronizedMap(new HashMap<>());
 
     public ShellControlCache(ShellControl shellControl) {
         this.shellControl = shellControl;
@@ -44,20 +45,39 @@ public class ShellControlCache {
 
     public void setIfAbsentFailable(String key, FailableSupplier<Object> value) throws Exception {
         if (multiPurposeCache.get(key) == null) {
-            multiPurposeCache.put(key, value.get());
+            var v = value.get();
+            multiPurposeCache.putIfAbsent(key, v);
         }
     }
 
     public boolean isApplicationInPath(String app) {
-        if (!installedApplications.containsKey(app)) {
-            try {
-                var b = CommandSupport.isInPath(shellControl, app);
-                installedApplications.put(app, b);
-            } catch (Exception e) {
-                installedApplications.put(app, false);
-            }
+        var cached = installedApplications.get(app);
+        if (cached != null) {
+            return cached;
         }
 
-        return installedApplications.get(app);
+        boolean b;
+        try {
+            // Only remember installed applications across sessions, a missing one might be installed later on
+            b = ShellCapabilityCache.getOrCompute(
+                    shellControl,
+                    "inPath:" + app,
+                    Boolean.class,
+                    () -> CommandSupport.isInPath(shellControl, app),
+                    Boolean::booleanValue);
+        } catch (Exception e) {
+            b = false;
+        }
+        installedApplications.put(app, b);
+        return b;
+    }
+
+    /**
+     * Drops all cached values, including the ones remembered for the system across sessions.
+     */
+    public void invalidate() {
+        installedApplications.clear();
+        multiPurposeCache.clear();
+        ShellCapabilityCache.invalidate(shellControl);
     }
 }
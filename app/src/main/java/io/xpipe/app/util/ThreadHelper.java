@@ -7,12 +7,83 @@ import io.xpipe.core.util.FailableRunnable;
 
 import lombok.SneakyThrows;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ThreadHelper {
 
+    private static final String PER_KEY_LIMIT_PROP = "io.xpipe.app.perConnectionTasks";
+    private static final int DEFAULT_PER_KEY_LIMIT = 4;
+
     private static final AtomicInteger counter = new AtomicInteger();
+    private static AppExecutor ioExecutor;
+    private static AppExecutor cpuExecutor;
+
+    private static int getPerKeyLimit() {
+        return Math.max(1, Integer.getInteger(PER_KEY_LIMIT_PROP, DEFAULT_PER_KEY_LIMIT));
+    }
+
+    /**
+     * The executor for blocking tasks. Runs on virtual threads unless they are disabled.
+     */
+    public static synchronized AppExecutor io() {
+        if (ioExecutor == null) {
+            var virtual = AppProperties.get() == null || AppProperties.get().isUseVirtualThreads();
+            var ioCounter = new AtomicInteger();
+            var delegate = virtual
+                    ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory())
+                    : Executors.newCachedThreadPool(r -> {
+                        return createPlatformThread("io-" + ioCounter.getAndIncrement(), true, r);
+                    });
+            ioExecutor = new AppExecutor("io", delegate, getPerKeyLimit());
+        }
+        return ioExecutor;
+    }
+
+    /**
+     * The executor for computations and other work that can keep a processor busy, bounded by the number of processors.
+     */
+    public static synchronized AppExecutor cpu() {
+        if (cpuExecutor == null) {
+            var cpuCounter = new AtomicInteger();
+            var delegate = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                return createPlatformThread("cpu-" + cpuCounter.getAndIncrement(), true, r);
+            });
+            cpuExecutor = new AppExecutor("cpu", delegate, getPerKeyLimit());
+        }
+        return cpuExecutor;
+    }
+
+    /**
+     * Returns the executors that have been created so far, without creating any.
+     */
+    public static synchronized List<AppExecutor> getExecutors() {
+        var l = new ArrayList<AppExecutor>();
+        if (ioExecutor != null) {
+            l.add(ioExecutor);
+        }
+        if (cpuExecutor != null) {
+            l.add(cpuExecutor);
+        }
+        if (GlobalTimer.getExecutor() != null) {
+            l.add(GlobalTimer.getExecutor());
+        }
+        return l;
+    }
+
+    public static synchronized void reset() {
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+            ioExecutor = null;
+        }
+        if (cpuExecutor != null) {
+            cpuExecutor.shutdown();
+            cpuExecutor = null;
+        }
+    }
 
     private static Runnable wrap(Runnable r) {
         return () -> {
@@ -32,24 +103,26 @@ public class ThreadHelper {
                 : Thread.ofPlatform().unstarted(wrap(r));
     }
 
-    public static Thread runAsync(Runnable r) {
-        var t = unstarted(r);
-        t.setDaemon(true);
-        t.start();
-        return t;
+    public static void runAsync(Runnable r) {
+        io().submit(wrap(r));
     }
 
-    public static Thread runFailableAsync(FailableRunnable<Throwable> r) {
-        var t = unstarted(() -> {
+    /**
+     * Runs a task asynchronously, but only a limited amount of tasks for the same key at a time.
+     * This is used to not overwhelm a single connection with many concurrent requests.
+     */
+    public static void runAsyncLimited(Object key, Runnable r) {
+        io().submit(key, wrap(r));
+    }
+
+    public static void runFailableAsync(FailableRunnable<Throwable> r) {
+        runAsync(() -> {
             try {
                 r.run();
             } catch (Throwable e) {
                 ErrorEvent.fromThrowable(e).handle();
             }
         });
-        t.setDaemon(true);
-        t.start();
-        return t;
     }
 
     public static Thread createPlatformThread(String name, boolean daemon, Runnable r) {
@@ -146,6 +146,9 @@ open module io.xpipe.app {
             FsReadExchangeImpl,
             FsScriptExchangeImpl,
             FsWriteExchangeImpl,
+            FsUploadExchangeImpl,
+            BatchExchangeImpl,
+            ShellExecStreamExchangeImpl,
             AskpassExchangeImpl,
             TerminalPrepareExchangeImpl,
             TerminalRegisterExchangeImpl,
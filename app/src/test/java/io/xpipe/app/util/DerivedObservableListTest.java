@@ -0,0 +1,278 @@
+package io.xpipe.app.util;
+
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class DerivedObservableListTest {
+
+    private static class Element {
+
+        private final String name;
+        private final SimpleIntegerProperty value;
+
+        private Element(String name, int value) {
+            this.name = name;
+            this.value = new SimpleIntegerProperty(value);
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + value.get();
+        }
+    }
+
+    private static ObservableList<Element> source(Element... elements) {
+        var list = FXCollections.<Element>observableArrayList(e -> new Observable[] {e.value});
+        list.addAll(elements);
+        return list;
+    }
+
+    private static final Predicate<Element> EVEN = e -> e.value.get() % 2 == 0;
+    private static final Comparator<Element> BY_VALUE = Comparator.comparingInt(e -> e.value.get());
+
+    private static List<Element> expectedFiltered(List<Element> source) {
+        return source.stream().filter(EVEN).toList();
+    }
+
+    private static List<Element> expectedSorted(List<Element> source) {
+        return source.stream().sorted(BY_VALUE).toList();
+    }
+
+    @Test
+    public void testFilteredAddRemove() {
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var c = new Element("c", 4);
+        var source = source(a, b);
+        var filtered = DerivedObservableList.wrap(source, true).filteredIncremental(EVEN);
+        Assertions.assertEquals(List.of(b), filtered.getList());
+
+        source.add(0, c);
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+
+        source.remove(b);
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+
+        source.addAll(List.of(new Element("d", 6), new Element("e", 7), new Element("f", 8)));
+        source.remove(1, 3);
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+    }
+
+    @Test
+    public void testFilteredReplace() {
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var source = source(a, b);
+        var filtered = DerivedObservableList.wrap(source, true).filteredIncremental(EVEN);
+
+        source.set(0, new Element("c", 4));
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+
+        source.setAll(new Element("d", 6), a, new Element("e", 8));
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+    }
+
+    @Test
+    public void testFilteredUpdate() {
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var c = new Element("c", 3);
+        var source = source(a, b, c);
+        var filtered = DerivedObservableList.wrap(source, true).filteredIncremental(EVEN);
+
+        c.value.set(4);
+        Assertions.assertEquals(List.of(b, c), filtered.getList());
+
+        b.value.set(5);
+        Assertions.assertEquals(List.of(c), filtered.getList());
+
+        a.value.set(0);
+        Assertions.assertEquals(List.of(a, c), filtered.getList());
+    }
+
+    @Test
+    public void testFilteredPermutation() {
+        var a = new Element("a", 4);
+        var b = new Element("b", 1);
+        var c = new Element("c", 2);
+        var source = source(a, b, c);
+        var filtered = DerivedObservableList.wrap(source, true).filteredIncremental(EVEN);
+
+        FXCollections.sort(source, BY_VALUE);
+        Assertions.assertEquals(expectedFiltered(source), filtered.getList());
+        Assertions.assertEquals(List.of(c, a), filtered.getList());
+    }
+
+    @Test
+    public void testFilteredMutableState() {
+        // Similar to a child entry that is added before its parent
+        var parents = new HashSet<Element>();
+        var child = new Element("child", 0);
+        var parent = new Element("parent", 0);
+        var source = source(child);
+        var filtered = DerivedObservableList.wrap(source, true).filtered(e -> e != child || !parents.contains(parent));
+        Assertions.assertEquals(List.of(child), filtered.getList());
+
+        parents.add(parent);
+        source.add(parent);
+        Assertions.assertEquals(List.of(parent), filtered.getList());
+    }
+
+    @Test
+    public void testFilteredIncrementalDependency() {
+        var threshold = new SimpleIntegerProperty(2);
+        var a = new Element("a", 1);
+        var b = new Element("b", 3);
+        var source = FXCollections.observableArrayList(a, b);
+        var filtered = DerivedObservableList.wrap(source, true)
+                .filteredIncremental(e -> e.value.get() >= threshold.get(), threshold);
+        Assertions.assertEquals(List.of(b), filtered.getList());
+
+        var c = new Element("c", 5);
+        source.add(0, c);
+        Assertions.assertEquals(List.of(c, b), filtered.getList());
+
+        threshold.set(0);
+        Assertions.assertEquals(List.of(c, a, b), filtered.getList());
+
+        threshold.set(4);
+        Assertions.assertEquals(List.of(c), filtered.getList());
+    }
+
+    @Test
+    public void testSortedAddRemove() {
+        var a = new Element("a", 5);
+        var b = new Element("b", 1);
+        var source = source(a, b);
+        var sorted = DerivedObservableList.wrap(source, true).sortedIncremental(BY_VALUE);
+        Assertions.assertEquals(List.of(b, a), sorted.getList());
+
+        source.add(new Element("c", 3));
+        Assertions.assertEquals(expectedSorted(source), sorted.getList());
+
+        source.add(0, new Element("d", 0));
+        Assertions.assertEquals(expectedSorted(source), sorted.getList());
+
+        source.remove(a);
+        Assertions.assertEquals(expectedSorted(source), sorted.getList());
+    }
+
+    @Test
+    public void testSortedReplace() {
+        var a = new Element("a", 5);
+        var b = new Element("b", 1);
+        var source = source(a, b);
+        var sorted = DerivedObservableList.wrap(source, true).sortedIncremental(BY_VALUE);
+
+        source.set(1, new Element("c", 9));
+        Assertions.assertEquals(expectedSorted(source), sorted.getList());
+    }
+
+    @Test
+    public void testSortedUpdate() {
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var c = new Element("c", 3);
+        var source = source(a, b, c);
+        var sorted = DerivedObservableList.wrap(source, true).sortedIncremental(BY_VALUE);
+
+        a.value.set(10);
+        Assertions.assertEquals(List.of(b, c, a), sorted.getList());
+
+        c.value.set(0);
+        Assertions.assertEquals(List.of(c, b, a), sorted.getList());
+    }
+
+    @Test
+    public void testSortedPermutation() {
+        var a = new Element("a", 3);
+        var b = new Element("b", 1);
+        var c = new Element("c", 2);
+        var source = source(a, b, c);
+        var sorted = DerivedObservableList.wrap(source, true).sortedIncremental(BY_VALUE);
+
+        FXCollections.reverse(source);
+        Assertions.assertEquals(List.of(b, c, a), sorted.getList());
+    }
+
+    @Test
+    public void testSortedMutableState() {
+        // Sort keys that change without an update event must not lead to a wrong insertion position
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var source = FXCollections.observableArrayList(a, b);
+        var sorted = DerivedObservableList.wrap(source, true).sorted(BY_VALUE);
+
+        a.value.set(5);
+        source.add(new Element("c", 3));
+        Assertions.assertEquals(expectedSorted(source), sorted.getList());
+    }
+
+    @Test
+    public void testSortedIncrementalDependency() {
+        var reversed = new SimpleBooleanProperty();
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var source = FXCollections.observableArrayList(a, b);
+        var sorted = DerivedObservableList.wrap(source, true)
+                .sortedIncremental(
+                        (o1, o2) -> reversed.get() ? BY_VALUE.compare(o2, o1) : BY_VALUE.compare(o1, o2), reversed);
+        Assertions.assertEquals(List.of(a, b), sorted.getList());
+
+        var c = new Element("c", 3);
+        source.add(c);
+        Assertions.assertEquals(List.of(a, b, c), sorted.getList());
+
+        // Sort keys that change together with a dependency are picked up
+        a.value.set(4);
+        reversed.set(true);
+        Assertions.assertEquals(List.of(a, c, b), sorted.getList());
+    }
+
+    @Test
+    public void testMapped() {
+        var a = new Element("a", 1);
+        var b = new Element("b", 2);
+        var source = source(a, b);
+        var mapped = DerivedObservableList.wrap(source, true).mapped(e -> e.name);
+        Assertions.assertEquals(List.of("a", "b"), mapped.getList());
+
+        source.add(1, new Element("c", 3));
+        Assertions.assertEquals(List.of("a", "c", "b"), mapped.getList());
+
+        source.remove(a);
+        Assertions.assertEquals(List.of("c", "b"), mapped.getList());
+
+        source.set(0, new Element("d", 4));
+        Assertions.assertEquals(List.of("d", "b"), mapped.getList());
+
+        FXCollections.reverse(source);
+        Assertions.assertEquals(List.of("b", "d"), mapped.getList());
+
+        b.value.set(7);
+        Assertions.assertEquals(List.of("b", "d"), mapped.getList());
+    }
+
+    @Test
+    public void testSynchronizedChain() {
+        var source = DerivedObservableList.<Element>synchronizedArrayList(true);
+        var derived = source.filteredIncremental(EVEN).sortedIncremental(BY_VALUE);
+        var elements = Set.of(new Element("a", 4), new Element("b", 3), new Element("c", 2));
+        source.getList().addAll(elements);
+        Assertions.assertEquals(
+                elements.stream().filter(EVEN).sorted(BY_VALUE).toList(),
+                derived.getList());
+    }
+}
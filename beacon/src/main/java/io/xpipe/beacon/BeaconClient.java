@@ -8,15 +8,20 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.SneakyThrows;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Optional;
 
 public class BeaconClient {
 
+    private static HttpClient HTTP_CLIENT;
+
     private final int port;
     private String token;
 
@@ -43,19 +48,20 @@ public class BeaconClient {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public <RES> RES performRequest(BeaconInterface<?> prov, String rawNode)
-            throws BeaconConnectorException, BeaconClientException, BeaconServerException {
-        var content = rawNode;
-        if (BeaconConfig.printMessages()) {
-            System.out.println("Sending raw request:");
-            System.out.println(content);
+    private static synchronized HttpClient getHttpClient() {
+        if (HTTP_CLIENT == null) {
+            // The daemon http server only speaks HTTP/1.1, which keeps the connection alive across requests
+            HTTP_CLIENT = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
         }
+        return HTTP_CLIENT;
+    }
 
-        var client = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
-        HttpResponse<String> response;
+    private HttpResponse<InputStream> sendRequest(BeaconInterface<?> prov, String content)
+            throws BeaconConnectorException {
+        var client = getHttpClient();
         try {
             // Use direct IP to prevent DNS lookups and potential blocks (e.g. portmaster)
             var uri = URI.create("http://127.0.0.1:" + port + prov.getPath());
@@ -66,35 +72,90 @@ public class BeaconClient {
             var httpRequest = builder.uri(uri)
                     .POST(HttpRequest.BodyPublishers.ofString(content))
                     .build();
-            response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            return client.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
         } catch (Exception ex) {
             throw new BeaconConnectorException("Couldn't send request", ex);
         }
+    }
 
-        if (BeaconConfig.printMessages()) {
-            System.out.println("Received raw response:");
-            System.out.println(response.body());
+    /**
+     * Performs a request whose response is a raw stream, e.g. for exchanges that send their output while running.
+     * The caller is responsible for closing the returned stream.
+     */
+    public <REQ> InputStream performStreamRequest(REQ req)
+            throws BeaconConnectorException, BeaconClientException, BeaconServerException {
+        ObjectNode node = JacksonMapper.getDefault().valueToTree(req);
+        var prov = BeaconInterface.byRequest(req);
+        if (prov.isEmpty()) {
+            throw new IllegalArgumentException("Unknown request class " + req.getClass());
         }
 
-        var se = parseServerError(response);
-        if (se.isPresent()) {
-            se.get().throwError();
+        var response = sendRequest(prov.get(), node.toString());
+        if (response.statusCode() < 400) {
+            return response.body();
         }
 
-        var ce = parseClientError(response);
-        if (ce.isPresent()) {
-            throw ce.get().throwException();
+        try (var body = response.body()) {
+            var string = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            var se = parseServerError(response.statusCode(), string);
+            if (se.isPresent()) {
+                se.get().throwError();
+            }
+
+            var ce = parseClientError(response.statusCode(), string);
+            if (ce.isPresent()) {
+                throw ce.get().throwException();
+            }
+            throw new BeaconConnectorException("Unexpected response status " + response.statusCode());
+        } catch (IOException ex) {
+            throw new BeaconConnectorException("Couldn't read response", ex);
         }
+    }
 
-        try {
+    @SuppressWarnings("unchecked")
+    public <RES> RES performRequest(BeaconInterface<?> prov, String rawNode)
+            throws BeaconConnectorException, BeaconClientException, BeaconServerException {
+        var content = rawNode;
+        if (BeaconConfig.printMessages()) {
+            System.out.println("Sending raw request:");
+            System.out.println(content);
+        }
+
+        var response = sendRequest(prov, content);
+        try (var body = response.body()) {
             var reader = JacksonMapper.getDefault().readerFor(prov.getResponseClass());
             var emptyResponseClass = prov.getResponseClass().getDeclaredFields().length == 0;
-            var body = response.body();
-            if (emptyResponseClass && body.isBlank()) {
+
+            // Only read the complete body into memory if we have to
+            if (BeaconConfig.printMessages() || response.statusCode() >= 400) {
+                var string = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                if (BeaconConfig.printMessages()) {
+                    System.out.println("Received raw response:");
+                    System.out.println(string);
+                }
+
+                var se = parseServerError(response.statusCode(), string);
+                if (se.isPresent()) {
+                    se.get().throwError();
+                }
+
+                var ce = parseClientError(response.statusCode(), string);
+                if (ce.isPresent()) {
+                    throw ce.get().throwException();
+                }
+
+                if (emptyResponseClass && string.isBlank()) {
+                    return createDefaultResponse(prov);
+                }
+                return (RES) reader.readValue(string);
+            }
+
+            if (emptyResponseClass) {
+                body.transferTo(OutputStream.nullOutputStream());
                 return createDefaultResponse(prov);
             }
-            var v = (RES) reader.readValue(body);
-            return v;
+
+            return (RES) reader.readValue(body);
         } catch (IOException ex) {
             throw new BeaconConnectorException("Couldn't parse response", ex);
         }
@@ -123,31 +184,32 @@ public class BeaconClient {
                     "Sending request to server of type " + req.getClass().getName());
         }
 
-        return performRequest(prov.get(), node.toPrettyString());
+        // Only pretty print when the messages are actually shown
+        return performRequest(prov.get(), BeaconConfig.printMessages() ? node.toPrettyString() : node.toString());
     }
 
-    private Optional<BeaconClientErrorResponse> parseClientError(HttpResponse<String> response)
+    private Optional<BeaconClientErrorResponse> parseClientError(int statusCode, String body)
             throws BeaconConnectorException {
-        if (response.statusCode() < 400 || response.statusCode() > 499) {
+        if (statusCode < 400 || statusCode > 499) {
             return Optional.empty();
         }
 
         try {
-            var v = JacksonMapper.getDefault().readValue(response.body(), BeaconClientErrorResponse.class);
+            var v = JacksonMapper.getDefault().readValue(body, BeaconClientErrorResponse.class);
             return Optional.of(v);
         } catch (IOException ex) {
             throw new BeaconConnectorException("Couldn't parse client error message", ex);
         }
     }
 
-    private Optional<BeaconServerErrorResponse> parseServerError(HttpResponse<String> response)
+    private Optional<BeaconServerErrorResponse> parseServerError(int statusCode, String body)
             throws BeaconConnectorException {
-        if (response.statusCode() < 500 || response.statusCode() > 599) {
+        if (statusCode < 500 || statusCode > 599) {
             return Optional.empty();
         }
 
         try {
-            var v = JacksonMapper.getDefault().readValue(response.body(), BeaconServerErrorResponse.class);
+            var v = JacksonMapper.getDefault().readValue(body, BeaconServerErrorResponse.class);
             return Optional.of(v);
         } catch (IOException ex) {
             throw new BeaconConnectorException("Couldn't parse client error message", ex);
@@ -4,6 +4,8 @@ import io.xpipe.core.util.XPipeInstallation;
 
 import lombok.experimental.UtilityClass;
 
+import java.time.Duration;
+
 @UtilityClass
 public class BeaconConfig {
 
@@ -14,6 +16,12 @@ public class BeaconConfig {
     private static final String ATTACH_DEBUGGER_PROP = "io.xpipe.beacon.attachDebuggerToDaemon";
     private static final String EXEC_DEBUG_PROP = "io.xpipe.beacon.printDaemonOutput";
     private static final String EXEC_PROCESS_PROP = "io.xpipe.beacon.customDaemonCommand";
+    private static final String SERVER_VIRTUAL_THREADS_PROP = "io.xpipe.beacon.virtualThreads";
+    private static final String SERVER_BACKLOG_PROP = "io.xpipe.beacon.backlog";
+    private static final int DEFAULT_SERVER_BACKLOG = 50;
+    private static final String SHELL_SESSION_POOL_SIZE_PROP = "io.xpipe.beacon.shellPoolSize";
+    private static final String SHELL_SESSION_IDLE_TIMEOUT_PROP = "io.xpipe.beacon.shellIdleTimeoutMinutes";
+    private static final int DEFAULT_SHELL_SESSION_IDLE_TIMEOUT_MINUTES = 60;
 
     public static boolean printMessages() {
         if (System.getProperty(PRINT_MESSAGES_PROPERTY) != null) {
@@ -43,6 +51,43 @@ public class BeaconConfig {
         return false;
     }
 
+    public static boolean useVirtualThreadDispatch() {
+        if (System.getProperty(SERVER_VIRTUAL_THREADS_PROP) != null) {
+            return Boolean.parseBoolean(System.getProperty(SERVER_VIRTUAL_THREADS_PROP));
+        }
+        return true;
+    }
+
+    public static int getServerBacklog() {
+        if (System.getProperty(SERVER_BACKLOG_PROP) != null) {
+            try {
+                return Integer.parseInt(System.getProperty(SERVER_BACKLOG_PROP));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return DEFAULT_SERVER_BACKLOG;
+    }
+
+    public static int getShellSessionPoolSize() {
+        if (System.getProperty(SHELL_SESSION_POOL_SIZE_PROP) != null) {
+            try {
+                return Math.max(1, Integer.parseInt(System.getProperty(SHELL_SESSION_POOL_SIZE_PROP)));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 1;
+    }
+
+    public static Duration getShellSessionIdleTimeout() {
+        if (System.getProperty(SHELL_SESSION_IDLE_TIMEOUT_PROP) != null) {
+            try {
+                return Duration.ofMinutes(Long.parseLong(System.getProperty(SHELL_SESSION_IDLE_TIMEOUT_PROP)));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return Duration.ofMinutes(DEFAULT_SHELL_SESSION_IDLE_TIMEOUT_MINUTES);
+    }
+
     public static int getUsedPort() {
         var beaconPort = System.getenv("BEACON_PORT");
         if (beaconPort != null && !beaconPort.isBlank()) {
@@ -84,6 +84,14 @@ public abstract class BeaconInterface<T> {
         return false;
     }
 
+    /**
+     * Whether this exchange can be performed as part of a batch request.
+     * This is not possible for exchanges that work with the raw http exchange.
+     */
+    public boolean allowInBatch() {
+        return !readRawRequestBody();
+    }
+
     public boolean requiresEnabledApi() {
         return true;
     }
@@ -91,4 +99,27 @@ public abstract class BeaconInterface<T> {
     public Object getSynchronizationObject() {
         return null;
     }
+
+    /**
+     * The object to synchronize on for a specific request, e.g. the connection it refers to.
+     */
+    public Object getSynchronizationObject(T request) {
+        return getSynchronizationObject();
+    }
+
+    /**
+     * Whether this exchange needs exclusive access to the synchronization object.
+     * Exchanges that don't modify its state can run concurrently with each other
+     * and only have to wait for the exclusive ones.
+     */
+    public boolean requiresExclusiveSynchronization() {
+        return true;
+    }
+
+    /**
+     * The maximum number of exchanges of this type that can be handled at the same time, or -1 if there is no limit.
+     */
+    public int getMaxConcurrentRequests() {
+        return -1;
+    }
 }
@@ -0,0 +1,65 @@
+package io.xpipe.beacon.api;
+
+import io.xpipe.beacon.BeaconInterface;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Performs multiple exchanges in one request.
+ * Unless the requests are marked as sequential, they are run concurrently.
+ * The results are streamed back as newline-delimited JSON objects in the order in which they finish,
+ * each one containing the index of the associated request.
+ */
+public class BatchExchange extends BeaconInterface<BatchExchange.Request> {
+
+    @Override
+    public String getPath() {
+        return "/batch";
+    }
+
+    @Override
+    public boolean allowInBatch() {
+        return false;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Request {
+        @NonNull
+        List<SubRequest> requests;
+
+        boolean sequential;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class SubRequest {
+        @NonNull
+        String path;
+
+        JsonNode body;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Result {
+        int index;
+        int status;
+        JsonNode response;
+        JsonNode error;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Response {}
+}
@@ -12,6 +12,11 @@ import java.util.UUID;
 
 public class FsReadExchange extends BeaconInterface<FsReadExchange.Request> {
 
+    @Override
+    public boolean allowInBatch() {
+        return false;
+    }
+
     @Override
     public String getPath() {
         return "/fs/read";
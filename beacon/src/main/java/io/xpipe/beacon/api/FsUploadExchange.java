@@ -0,0 +1,35 @@
+package io.xpipe.beacon.api;
+
+import io.xpipe.beacon.BeaconInterface;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Writes the raw request body directly to a file without storing it as a blob first.
+ * As the body is the file content, the connection and path are passed as the query parameters
+ * {@code connection} and {@code path}.
+ */
+public class FsUploadExchange extends BeaconInterface<FsUploadExchange.Request> {
+
+    @Override
+    public String getPath() {
+        return "/fs/upload";
+    }
+
+    @Override
+    public boolean readRawRequestBody() {
+        return true;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Request {}
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Response {}
+}
@@ -16,6 +16,11 @@ public class HandshakeExchange extends BeaconInterface<HandshakeExchange.Request
         return true;
     }
 
+    @Override
+    public boolean allowInBatch() {
+        return false;
+    }
+
     @Override
     public String getPath() {
         return "/handshake";
@@ -0,0 +1,88 @@
+package io.xpipe.beacon.api;
+
+import io.xpipe.beacon.BeaconInterface;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Runs a command like {@link ShellExecExchange}, but streams the output while the command is running.
+ * The response body consists of binary frames, each one starting with a type byte and a four byte length,
+ * followed by the payload. Output frames contain the raw bytes of stdout or stderr.
+ * The last frame contains the exit code as an eight byte value.
+ */
+public class ShellExecStreamExchange extends BeaconInterface<ShellExecStreamExchange.Request> {
+
+    public static final int STDOUT = 1;
+    public static final int STDERR = 2;
+    public static final int EXIT = 3;
+
+    /**
+     * The maximum payload size of a single frame. Larger outputs are split into multiple frames.
+     */
+    public static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    @Override
+    public String getPath() {
+        return "/shell/stream";
+    }
+
+    @Override
+    public boolean allowInBatch() {
+        return false;
+    }
+
+    public static Frame readFrame(InputStream in) throws IOException {
+        var dataIn = new DataInputStream(in);
+        int type;
+        try {
+            type = dataIn.readUnsignedByte();
+        } catch (EOFException ex) {
+            return null;
+        }
+
+        var length = dataIn.readInt();
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length " + length);
+        }
+
+        var data = new byte[length];
+        dataIn.readFully(data);
+        var exitCode = type == EXIT && length == Long.BYTES
+                ? new DataInputStream(new ByteArrayInputStream(data)).readLong()
+                : 0;
+        return new Frame(type, data, exitCode);
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Request {
+        @NonNull
+        UUID connection;
+
+        @NonNull
+        String command;
+    }
+
+    @Jacksonized
+    @Builder
+    @Value
+    public static class Response {}
+
+    @Value
+    public static class Frame {
+        int type;
+        byte[] data;
+        long exitCode;
+    }
+}
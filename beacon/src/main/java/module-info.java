@@ -55,6 +55,9 @@ open module io.xpipe.beacon {
             FsReadExchange,
             FsBlobExchange,
             FsWriteExchange,
+            FsUploadExchange,
+            BatchExchange,
+            ShellExecStreamExchange,
             FsScriptExchange,
             DaemonVersionExchange;
 }
@@ -0,0 +1,222 @@
+package io.xpipe.core.process;
+
+import io.xpipe.core.store.FilePath;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+public class WrapperCommandControl implements CommandControl {
+
+    protected final CommandControl command;
+
+    public WrapperCommandControl(CommandControl command) {
+        this.command = command;
+    }
+
+    @Override
+    public void setSensitive() {
+        command.setSensitive();
+    }
+
+    @Override
+    public CommandControl withExceptionConverter(ExceptionConverter converter) {
+        command.withExceptionConverter(converter);
+        return this;
+    }
+
+    @Override
+    public CommandControl start() throws Exception {
+        command.start();
+        return this;
+    }
+
+    @Override
+    public CommandControl withErrorFormatter(Function<String, String> formatter) {
+        command.withErrorFormatter(formatter);
+        return this;
+    }
+
+    @Override
+    public CommandControl terminalExitMode(TerminalExitMode mode) {
+        command.terminalExitMode(mode);
+        return this;
+    }
+
+    @Override
+    public CommandControl doesNotObeyReturnValueConvention() {
+        command.doesNotObeyReturnValueConvention();
+        return this;
+    }
+
+    @Override
+    public CommandControl complex() {
+        command.complex();
+        return this;
+    }
+
+    @Override
+    public CommandControl notComplex() {
+        command.notComplex();
+        return this;
+    }
+
+    @Override
+    public CommandControl withWorkingDirectory(FilePath directory) {
+        command.withWorkingDirectory(directory);
+        return this;
+    }
+
+    @Override
+    public ShellControl getParent() {
+        return command.getParent();
+    }
+
+    @Override
+    public InputStream startExternalStdout() throws Exception {
+        return command.startExternalStdout();
+    }
+
+    @Override
+    public OutputStream startExternalStdin() throws Exception {
+        return command.startExternalStdin();
+    }
+
+    @Override
+    public void setExitTimeout(Duration duration) {
+        command.setExitTimeout(duration);
+    }
+
+    @Override
+    public void setStartTimeout(Duration duration) {
+        command.setStartTimeout(duration);
+    }
+
+    @Override
+    public boolean waitFor() {
+        return command.waitFor();
+    }
+
+    @Override
+    public CommandControl withCustomCharset(Charset charset) {
+        command.withCustomCharset(charset);
+        return this;
+    }
+
+    @Override
+    public long getExitCode() {
+        return command.getExitCode();
+    }
+
+    @Override
+    public CommandControl elevated(ElevationFunction function) {
+        command.elevated(function);
+        return this;
+    }
+
+    @Override
+    public String[] readStdoutAndStderr() throws Exception {
+        return command.readStdoutAndStderr();
+    }
+
+    @Override
+    public void discardOrThrow() throws Exception {
+        command.discardOrThrow();
+    }
+
+    @Override
+    public byte[] readRawBytesOrThrow() throws Exception {
+        return command.readRawBytesOrThrow();
+    }
+
+    @Override
+    public String readStdoutOrThrow() throws Exception {
+        return command.readStdoutOrThrow();
+    }
+
+    @Override
+    public Optional<String> readStdoutIfPossible() throws Exception {
+        return command.readStdoutIfPossible();
+    }
+
+    @Override
+    public UUID getUuid() {
+        return command.getUuid();
+    }
+
+    @Override
+    public void resetData() {
+        command.resetData();
+    }
+
+    @Override
+    public String prepareTerminalOpen(TerminalInitScriptConfig config, WorkingDirectoryFunction workingDirectory)
+            throws Exception {
+        return command.prepareTerminalOpen(config, workingDirectory);
+    }
+
+    @Override
+    public void refreshRunningState() {
+        command.refreshRunningState();
+    }
+
+    @Override
+    public void closeStdin() throws IOException {
+        command.closeStdin();
+    }
+
+    @Override
+    public boolean isAnyStreamClosed() {
+        return command.isAnyStreamClosed();
+    }
+
+    @Override
+    public boolean isRunning(boolean refresh) {
+        return command.isRunning(refresh);
+    }
+
+    @Override
+    public ShellDialect getShellDialect() {
+        return command.getShellDialect();
+    }
+
+    @Override
+    public void close() throws Exception {
+        command.close();
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        command.shutdown();
+    }
+
+    @Override
+    public void kill() {
+        command.kill();
+    }
+
+    @Override
+    public InputStream getStdout() {
+        return command.getStdout();
+    }
+
+    @Override
+    public OutputStream getStdin() {
+        return command.getStdin();
+    }
+
+    @Override
+    public InputStream getStderr() {
+        return command.getStderr();
+    }
+
+    @Override
+    public Charset getCharset() {
+        return command.getCharset();
+    }
+}
@@ -0,0 +1,79 @@
+package io.xpipe.core.util;
+
+import lombok.SneakyThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * AES-GCM encryption with one cipher instance per thread and a shared random source,
+ * as looking these up is more expensive than the encryption of a small value itself.
+ * The output format is the IV followed by the cipher text and tag.
+ */
+public class AesCrypto {
+
+    public static final String ALGORITHM = "AES/GCM/NoPadding";
+    public static final int TAG_LENGTH_BIT = 128;
+    public static final int IV_LENGTH_BYTE = 12;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Cipher> CIPHERS = new ThreadLocal<>();
+
+    public static byte[] randomNonce(int numBytes) {
+        byte[] nonce = new byte[numBytes];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    @SneakyThrows
+    public static byte[] encrypt(SecretKey key, byte[] iv, byte[] plain) {
+        var spec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
+        var cipher = getCipher();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, spec);
+        } catch (InvalidAlgorithmParameterException ex) {
+            // GCM ciphers refuse to encrypt with the same key and IV twice in a row, a fresh instance doesn't
+            cipher = newCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, key, spec);
+        }
+
+        var bytes = cipher.doFinal(plain);
+        return ByteBuffer.allocate(iv.length + bytes.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(iv)
+                .put(bytes)
+                .array();
+    }
+
+    @SneakyThrows
+    public static byte[] decrypt(SecretKey key, byte[] ivAndCipherText) {
+        if (ivAndCipherText.length < IV_LENGTH_BYTE) {
+            throw new GeneralSecurityException("Encrypted value is too short");
+        }
+
+        var cipher = getCipher();
+        var spec = new GCMParameterSpec(TAG_LENGTH_BIT, ivAndCipherText, 0, IV_LENGTH_BYTE);
+        cipher.init(Cipher.DECRYPT_MODE, key, spec);
+        return cipher.doFinal(ivAndCipherText, IV_LENGTH_BYTE, ivAndCipherText.length - IV_LENGTH_BYTE);
+    }
+
+    private static Cipher getCipher() throws GeneralSecurityException {
+        var cipher = CIPHERS.get();
+        if (cipher == null) {
+            cipher = newCipher();
+        }
+        return cipher;
+    }
+
+    private static Cipher newCipher() throws GeneralSecurityException {
+        var cipher = Cipher.getInstance(ALGORITHM);
+        CIPHERS.set(cipher);
+        return cipher;
+    }
+}
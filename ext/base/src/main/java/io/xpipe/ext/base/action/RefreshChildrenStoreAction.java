@@ -7,6 +7,7 @@ import io.xpipe.app.storage.DataStoreEntry;
 import io.xpipe.app.storage.DataStoreEntryRef;
 import io.xpipe.app.util.FixedHierarchyStore;
 import io.xpipe.app.util.LabelGraphic;
+import io.xpipe.app.util.ShellCapabilityCache;
 
 import javafx.beans.value.ObservableValue;
 
@@ -78,6 +79,8 @@ public class RefreshChildrenStoreAction implements ActionProvider {
 
         @Override
         public void execute() {
+            // A manual refresh should also pick up changes of the system itself
+            ShellCapabilityCache.invalidate(store.getUuid());
             DataStorage.get().refreshChildren(store);
         }
     }
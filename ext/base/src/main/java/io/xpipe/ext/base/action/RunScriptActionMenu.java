@@ -4,6 +4,7 @@ import io.xpipe.app.comp.store.StoreCategoryConfigComp;
 import io.xpipe.app.comp.store.StoreViewState;
 import io.xpipe.app.core.AppI18n;
 import io.xpipe.app.ext.ActionProvider;
+import io.xpipe.app.ext.BatchActionExecutor;
 import io.xpipe.app.ext.ProcessControlProvider;
 import io.xpipe.app.ext.ShellStore;
 import io.xpipe.app.prefs.AppPrefs;
@@ -166,12 +167,17 @@ public class RunScriptActionMenu implements ActionProvider {
                 @Override
                 public Action createAction(List<DataStoreEntryRef<ShellStore>> stores) {
                     return () -> {
-                        var map = new LinkedHashMap<String, CommandControl>();
-                        for (DataStoreEntryRef<ShellStore> ref : stores) {
+                        // Connect to all systems at the same time instead of one after another
+                        var cmds = BatchActionExecutor.run(stores, ref -> ref.get(), ref -> {
                             var sc = ref.getStore().getOrStartSession();
                             var script = hierarchy.getLeafBase().getStore().assembleScriptChain(sc);
-                            var cmd = sc.command(script);
-                            map.put(ref.get().getName(), cmd);
+                            return sc.command(script);
+                        });
+                        var map = new LinkedHashMap<String, CommandControl>();
+                        for (int i = 0; i < stores.size(); i++) {
+                            if (cmds.get(i) != null) {
+                                map.put(stores.get(i).get().getName(), cmds.get(i));
+                            }
                         }
                         CommandDialog.runAsyncAndShow(map);
                     };
@@ -21,7 +21,8 @@ public class BrowseInNativeManagerAction implements BrowserLeafAction {
         for (BrowserEntry entry : entries) {
             var e = entry.getRawFileEntry().getPath();
             var localFile = sc.getLocalSystemAccess().translateToLocalSystemPath(e);
-            try (var local = LocalShell.getShell().start()) {
+            try (var lease = LocalShell.lease()) {
+                var local = lease.getShellControl();
                 DesktopHelper.browsePathRemote(
                         local, localFile, entry.getRawFileEntry().getKind());
             }